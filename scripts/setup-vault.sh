@@ -104,7 +104,8 @@ store_secrets() {
         host="$DB_HOST" \
         port="$DB_PORT" \
         database="url_shorten" \
-        quarkus.datasource.jdbc.url="jdbc:postgresql://$DB_HOST:$DB_PORT/url_shorten"
+        quarkus.datasource.jdbc.url="jdbc:postgresql://$DB_HOST:$DB_PORT/url_shorten" \
+        quarkus.datasource.reactive.url="postgresql://$DB_HOST:$DB_PORT/url_shorten"
 
     # Store Keycloak Secrets (with Quarkus property names)
     echo ""
@@ -133,6 +134,14 @@ store_secrets() {
         quarkus.pulsar.client.serviceUrl="$PULSAR_BROKER" \
         admin_url="$PULSAR_ADMIN"
 
+    # Keep an existing permutation key: a new one reshuffles every short code generated from now on
+    local PERMUTATION_KEY
+    PERMUTATION_KEY=$(kubectl exec -n $NAMESPACE $VAULT_POD -- env VAULT_ADDR="$VAULT_ADDR_INTERNAL" VAULT_TOKEN="$VAULT_TOKEN" \
+        vault kv get -field=app.short-code.permutation-key secret/url-shorten/$ENV/application/config 2>/dev/null)
+    if [ -z "$PERMUTATION_KEY" ]; then
+        PERMUTATION_KEY="$(openssl rand -base64 32)"
+    fi
+
     # Store Application Secrets (with proper property names)
     echo ""
     echo "⚙️  Storing Application secrets..."
@@ -141,7 +150,9 @@ store_secrets() {
         app.base-url="$BASE_URL" \
         app.short-code.length="7" \
         app.short-code.max-attempts="10" \
+        app.short-code.permutation-key="$PERMUTATION_KEY" \
         app.cache.url-ttl="3600" \
+        app.unlock-token.secret="$(openssl rand -base64 32)" \
         app.rate-limit.shorten="100" \
         app.rate-limit.redirect="1000" \
         app.pulsar.topic="url-shorten-clicks"
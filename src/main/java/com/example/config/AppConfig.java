@@ -1,9 +1,15 @@
 package com.example.config;
 
+import com.example.service.Impl.ClickEventQueue;
 import io.smallrye.config.ConfigMapping;
+import org.apache.pulsar.client.api.CompressionType;
 import io.smallrye.config.WithDefault;
 import io.smallrye.config.WithName;
 
+import java.time.Duration;
+import java.util.Map;
+import java.util.Optional;
+
 @ConfigMapping(prefix = "app")
 public interface AppConfig {
     @WithDefault("dev")
@@ -21,6 +27,40 @@ public interface AppConfig {
 
     PulsarConfig pulsar();
 
+    ClicksConfig clicks();
+
+    @WithName("click-events")
+    ClickEventsConfig clickEvents();
+
+    @WithName("click-ingest")
+    ClickIngestConfig clickIngest();
+
+    AnalyticsConfig analytics();
+
+    @WithName("top-values")
+    TopValuesConfig topValues();
+
+    @WithName("hot-keys")
+    HotKeysConfig hotKeys();
+
+    CacheWarmupConfig warmup();
+
+    RedirectConfig redirect();
+
+    @WithName("access-log")
+    AccessLogConfig accessLog();
+
+    @WithName("unlock-token")
+    UnlockTokenConfig unlockToken();
+
+    BcryptConfig bcrypt();
+
+    @WithName("batch-shorten")
+    BatchShortenConfig batchShorten();
+
+    @WithName("short-code-filter")
+    ShortCodeFilterConfig shortCodeFilter();
+
     /**
      * Short code settings
      */
@@ -32,6 +72,42 @@ public interface AppConfig {
         @WithName("max-attempts")
         @WithDefault("10")
         int maxAttempts();
+
+        /**
+         * Key of the ID -> code permutation, from Vault (no default: it is what
+         * keeps codes from decoding to sequential IDs). Must never change once
+         * codes exist.
+         */
+        @WithName("permutation-key")
+        String permutationKey();
+
+        PoolConfig pool();
+    }
+
+    /**
+     * Per-pod pool of reserved short code IDs
+     */
+    interface PoolConfig {
+
+        /**
+         * Depth below which a background refill starts
+         */
+        @WithName("low-water")
+        @WithDefault("500")
+        long lowWater();
+
+        /**
+         * Depth a refill tops the pool up to
+         */
+        @WithDefault("2000")
+        long target();
+
+        /**
+         * Valkey list of ranges handed back by pods on shutdown
+         */
+        @WithName("returned-key")
+        @WithDefault("codes:pool")
+        String returnedKey();
     }
 
     /**
@@ -42,6 +118,235 @@ public interface AppConfig {
         @WithName("url-ttl")
         @WithDefault("3600")
         int urlTtl();
+
+        /**
+         * How long past url-ttl an entry is kept to be served when the database fails
+         */
+        @WithName("stale-if-error")
+        @WithDefault("600")
+        int staleIfError();
+
+        /**
+         * How long to wait for a reload before serving the stale entry instead
+         */
+        @WithName("stale-load-timeout")
+        @WithDefault("500ms")
+        Duration staleLoadTimeout();
+
+        /**
+         * XFetch beta: > 1 refreshes earlier, < 1 later, 0 disables refresh-ahead
+         */
+        @WithName("refresh-ahead-beta")
+        @WithDefault("1.0")
+        double refreshAheadBeta();
+
+        @WithName("near-cache")
+        NearCacheConfig nearCache();
+    }
+
+    /**
+     * In-process near-cache settings
+     */
+    interface NearCacheConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithName("max-size")
+        @WithDefault("10000")
+        long maxSize();
+
+        @WithDefault("60")
+        int ttl();
+
+        @WithName("invalidation-channel")
+        @WithDefault("url-invalidations")
+        String invalidationChannel();
+    }
+
+    /**
+     * Hot-key detection and pinning settings
+     */
+    interface HotKeysConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * How many of the most requested codes are tracked
+         */
+        @WithName("top-k")
+        @WithDefault("32")
+        int topK();
+
+        /**
+         * Decayed request count at which a tracked code is pinned
+         */
+        @WithName("min-hits")
+        @WithDefault("500")
+        long minHits();
+
+        @WithName("refresh-interval")
+        @WithDefault("5s")
+        Duration refreshInterval();
+
+        /**
+         * Counts are halved every interval, so roughly two intervals of history count
+         */
+        @WithName("decay-interval")
+        @WithDefault("10s")
+        Duration decayInterval();
+
+        @WithName("sketch-width")
+        @WithDefault("4096")
+        int sketchWidth();
+
+        @WithName("sketch-depth")
+        @WithDefault("4")
+        int sketchDepth();
+    }
+
+    /**
+     * Startup cache pre-warming settings
+     */
+    interface CacheWarmupConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * How many of the most clicked active links to load
+         */
+        @WithName("top-n")
+        @WithDefault("10000")
+        int topN();
+
+        @WithName("chunk-size")
+        @WithDefault("500")
+        int chunkSize();
+
+        /**
+         * Warming stops (and the pod reports ready) once this is spent
+         */
+        @WithDefault("30s")
+        Duration budget();
+
+        /**
+         * Warmed entries are aged by a random share (up to this fraction) of
+         * url-ttl, so they do not all go stale at the same moment
+         */
+        @WithName("ttl-jitter")
+        @WithDefault("0.3")
+        double ttlJitter();
+    }
+
+    /**
+     * Redirect endpoint settings
+     */
+    interface RedirectConfig {
+
+        /**
+         * Serve /{shortCode} from a Vert.x route instead of JAX-RS
+         */
+        @WithName("fast-route")
+        @WithDefault("true")
+        boolean fastRoute();
+
+        /**
+         * Header the edge sets to the client's ISO country code (click analytics)
+         */
+        @WithName("country-header")
+        @WithDefault("X-Country-Code")
+        String countryHeader();
+    }
+
+    /**
+     * Sampled asynchronous access log
+     */
+    interface AccessLogConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Buffered entries; new entries are dropped when full
+         */
+        @WithDefault("8192")
+        int capacity();
+
+        /**
+         * Fraction of requests logged per route class: redirect, api, management, other
+         */
+        @WithName("sample-rate")
+        Map<String, Double> sampleRate();
+
+        @WithName("default-sample-rate")
+        @WithDefault("1.0")
+        double defaultSampleRate();
+
+        /**
+         * Log every 5xx regardless of sampling; unsampled ones carry no duration
+         */
+        @WithName("always-log-errors")
+        @WithDefault("true")
+        boolean alwaysLogErrors();
+    }
+
+    /**
+     * Unlock tokens for password-protected links
+     */
+    interface UnlockTokenConfig {
+
+        /**
+         * HMAC key; a random per-instance key is used when unset
+         */
+        Optional<String> secret();
+
+        @WithDefault("1h")
+        Duration ttl();
+
+        @WithName("cookie-name")
+        @WithDefault("unlock")
+        String cookieName();
+    }
+
+    /**
+     * Dedicated pool for BCrypt password checks
+     */
+    interface BcryptConfig {
+
+        @WithName("pool-size")
+        @WithDefault("2")
+        int poolSize();
+
+        @WithName("queue-capacity")
+        @WithDefault("32")
+        int queueCapacity();
+    }
+
+    /**
+     * Bulk shorten endpoint
+     */
+    interface BatchShortenConfig {
+
+        @WithName("max-items")
+        @WithDefault("10000")
+        int maxItems();
+
+        /**
+         * Rows per multi-row INSERT statement
+         */
+        @WithName("insert-chunk-size")
+        @WithDefault("1000")
+        int insertChunkSize();
+
+        /**
+         * Password-protected items per batch; each costs a BCrypt hash
+         * (~100ms), done before the transaction opens
+         */
+        @WithName("max-protected-items")
+        @WithDefault("50")
+        int maxProtectedItems();
     }
 
     /**
@@ -63,5 +368,307 @@ public interface AppConfig {
 
         @WithDefault("url-shorten-clicks")
         String topic();
+
+        /**
+         * Surrogate-key purge events for the edge cache
+         */
+        @WithName("purge-topic")
+        @WithDefault("url-shorten-cache-purge")
+        String purgeTopic();
+
+        @WithName("batching-max-delay")
+        @WithDefault("10ms")
+        Duration batchingMaxDelay();
+
+        @WithName("batching-max-messages")
+        @WithDefault("1000")
+        int batchingMaxMessages();
+
+        @WithName("batching-max-bytes")
+        @WithDefault("131072")
+        int batchingMaxBytes();
+
+        @WithDefault("LZ4")
+        CompressionType compression();
+    }
+
+    /**
+     * Click counter aggregation settings
+     */
+    interface ClicksConfig {
+
+        @WithName("flush-interval")
+        @WithDefault("250ms")
+        Duration flushInterval();
+
+        @WithName("flush-timeout")
+        @WithDefault("5s")
+        Duration flushTimeout();
+
+        @WithName("sync-interval")
+        @WithDefault("60s")
+        Duration syncInterval();
+
+        @WithName("sync-batch-size")
+        @WithDefault("5000")
+        int syncBatchSize();
+
+        /**
+         * Also keep live per-minute/per-hour series in Valkey
+         */
+        @WithName("series-enabled")
+        @WithDefault("true")
+        boolean seriesEnabled();
+
+        /**
+         * Lifetime of a link's daily series hash from its first click that
+         * day; must exceed 24h plus the longest live window (1 day)
+         */
+        @WithName("series-ttl")
+        @WithDefault("49h")
+        Duration seriesTtl();
+
+        /**
+         * Also count unique visitors per link per day (HyperLogLog in Valkey)
+         */
+        @WithName("visitors-enabled")
+        @WithDefault("true")
+        boolean visitorsEnabled();
+
+        /**
+         * Lifetime of a link's daily visitor HyperLogLog; bounds how far back
+         * unique visitors can be queried
+         */
+        @WithName("visitors-ttl")
+        @WithDefault("32d")
+        Duration visitorsTtl();
+    }
+
+    /**
+     * Click event pipeline settings (redirect path -> Pulsar)
+     */
+    interface ClickEventsConfig {
+
+        @WithDefault("65536")
+        int capacity();
+
+        @WithName("batch-size")
+        @WithDefault("512")
+        int batchSize();
+
+        @WithName("overflow-policy")
+        @WithDefault("DROP")
+        ClickEventQueue.OverflowPolicy overflowPolicy();
+
+        @WithName("sample-threshold")
+        @WithDefault("0.8")
+        double sampleThreshold();
+
+        @WithName("sample-rate")
+        @WithDefault("10")
+        int sampleRate();
+
+        @WithName("shutdown-timeout")
+        @WithDefault("5s")
+        Duration shutdownTimeout();
+
+        /**
+         * Sends awaiting a broker ack; when reached, the publisher thread
+         * waits and the buffer above absorbs (or drops) the backlog
+         */
+        @WithName("max-in-flight")
+        @WithDefault("4096")
+        int maxInFlight();
+    }
+
+    /**
+     * Click event ingestion (Pulsar -> partitioned url_clicks via COPY)
+     */
+    interface ClickIngestConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithDefault("url-service-click-ingest")
+        String subscription();
+
+        /**
+         * Messages per COPY (one Pulsar batch receive)
+         */
+        @WithName("batch-max-messages")
+        @WithDefault("5000")
+        int batchMaxMessages();
+
+        @WithName("batch-max-bytes")
+        @WithDefault("4194304")
+        int batchMaxBytes();
+
+        /**
+         * How long a batch receive waits to fill up
+         */
+        @WithName("batch-timeout")
+        @WithDefault("500ms")
+        Duration batchTimeout();
+
+        /**
+         * Pause after a failed batch before receiving again
+         */
+        @WithName("retry-delay")
+        @WithDefault("1s")
+        Duration retryDelay();
+
+        /**
+         * Longest wait between subscribe attempts (backoff starts at retry-delay)
+         */
+        @WithName("subscribe-max-backoff")
+        @WithDefault("1m")
+        Duration subscribeMaxBackoff();
+
+        /**
+         * Monthly partitions created ahead of the current month
+         */
+        @WithName("premake-months")
+        @WithDefault("2")
+        int premakeMonths();
+
+        /**
+         * Months of clicks kept attached; older partitions are detached
+         */
+        @WithName("retention-months")
+        @WithDefault("13")
+        int retentionMonths();
+
+        /**
+         * Drop detached partitions instead of leaving them for archiving
+         */
+        @WithName("drop-detached")
+        @WithDefault("false")
+        boolean dropDetached();
+    }
+
+    /**
+     * Per-link top referers / user agents (Space-Saving sketches in the
+     * ingest consumer, checkpointed to click_top_values)
+     */
+    interface TopValuesConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        /**
+         * Values monitored per link and dimension; counts are off by at most
+         * total / capacity
+         */
+        @WithDefault("50")
+        int capacity();
+
+        @WithName("checkpoint-interval")
+        @WithDefault("30s")
+        Duration checkpointInterval();
+
+        /**
+         * Links whose sketches are kept in memory between checkpoints; the
+         * least recently clicked are merged early and evicted beyond it
+         */
+        @WithName("max-links")
+        @WithDefault("2000")
+        int maxLinks();
+
+        /**
+         * Longer referers / user agents are truncated before counting
+         */
+        @WithName("max-value-length")
+        @WithDefault("512")
+        int maxValueLength();
+    }
+
+    /**
+     * Click analytics endpoint (rollup queries)
+     */
+    interface AnalyticsConfig {
+
+        /**
+         * Values returned per dimension (referers, countries, devices)
+         */
+        @WithName("top-n")
+        @WithDefault("10")
+        int topN();
+
+        @WithName("default-range")
+        @WithDefault("7d")
+        Duration defaultRange();
+
+        @WithName("max-hourly-range")
+        @WithDefault("31d")
+        Duration maxHourlyRange();
+
+        @WithName("max-daily-range")
+        @WithDefault("1096d")
+        Duration maxDailyRange();
+
+        /**
+         * Longest unique-visitor range (should not exceed app.clicks.visitors-ttl)
+         */
+        @WithName("max-visitor-range")
+        @WithDefault("31d")
+        Duration maxVisitorRange();
+
+        /**
+         * HyperLogLogs per PFMERGE when merging across all of a user's links
+         */
+        @WithName("visitor-merge-chunk-size")
+        @WithDefault("500")
+        int visitorMergeChunkSize();
+    }
+
+    /**
+     * Bloom filter + negative cache for unknown short codes
+     */
+    interface ShortCodeFilterConfig {
+
+        @WithDefault("true")
+        boolean enabled();
+
+        @WithName("false-positive-rate")
+        @WithDefault("0.01")
+        double falsePositiveRate();
+
+        @WithName("min-expected-insertions")
+        @WithDefault("1000000")
+        long minExpectedInsertions();
+
+        @WithName("negative-cache-ttl")
+        @WithDefault("30")
+        int negativeCacheTtl();
+
+        @WithName("negative-cache-max-size")
+        @WithDefault("100000")
+        long negativeCacheMaxSize();
+
+        @WithDefault("short-code-created")
+        String channel();
+
+        /**
+         * How often codes created since the last sync are read back from the
+         * database; pub/sub only makes new codes visible sooner
+         */
+        @WithName("catch-up-interval")
+        @WithDefault("30s")
+        Duration catchUpInterval();
+
+        /**
+         * Catch-up reads re-cover this much time before the last sync, for
+         * transactions that committed after their created_at
+         */
+        @WithName("catch-up-overlap")
+        @WithDefault("2m")
+        Duration catchUpOverlap();
+
+        /**
+         * Full rebuild interval, whatever the false-positive rate
+         */
+        @WithName("rebuild-interval")
+        @WithDefault("6h")
+        Duration rebuildInterval();
     }
-}
\ No newline at end of file
+}
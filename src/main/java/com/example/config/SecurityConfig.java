@@ -31,50 +31,18 @@ public class SecurityConfig {
 
         @Override
         public void filter(ContainerRequestContext requestContext) throws IOException {
-            String path = requestContext.getUriInfo().getPath();
-
-            // Log all requests (for debugging)
-            LOG.debugf("Request: %s %s",
-                    requestContext.getMethod(),
-                    path);
+            // Log all requests (for debugging; access logging is done by AccessLog)
+            if (LOG.isDebugEnabled()) {
+                LOG.debugf("Request: %s %s",
+                        requestContext.getMethod(),
+                        requestContext.getUriInfo().getPath());
+            }
 
             // Custom auth logic here if needed
             // For now, JWT is handled by @RolesAllowed
         }
     }
 
-    /**
-     * Request logging filter
-     */
-    @Provider
-    public static class RequestLoggingFilter implements ContainerRequestFilter {
-
-        private static final Logger LOG = Logger.getLogger(RequestLoggingFilter.class);
-
-        @Override
-        public void filter(ContainerRequestContext requestContext) throws IOException {
-            // Log incoming requests
-            LOG.infof("%s %s from %s",
-                    requestContext.getMethod(),
-                    requestContext.getUriInfo().getPath(),
-                    getClientIp(requestContext));
-        }
-
-        private String getClientIp(ContainerRequestContext context) {
-            String xForwardedFor = context.getHeaderString("X-Forwarded-For");
-            if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
-                return xForwardedFor.split(",")[0].trim();
-            }
-
-            String xRealIp = context.getHeaderString("X-Real-IP");
-            if (xRealIp != null && !xRealIp.isEmpty()) {
-                return xRealIp;
-            }
-
-            return "unknown";
-        }
-    }
-
     /**
      * Security helper methods
      */
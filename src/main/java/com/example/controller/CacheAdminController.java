@@ -0,0 +1,40 @@
+package com.example.controller;
+
+import com.example.service.Impl.HotKeyTracker;
+import jakarta.annotation.security.RolesAllowed;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.GET;
+import jakarta.ws.rs.Path;
+import jakarta.ws.rs.Produces;
+import jakarta.ws.rs.core.MediaType;
+import jakarta.ws.rs.core.Response;
+import org.eclipse.microprofile.openapi.annotations.tags.Tag;
+
+import java.util.List;
+import java.util.Map;
+
+@Path("/api/admin/cache")
+@Produces(MediaType.APPLICATION_JSON)
+@Tag(name = "Cache Admin", description = "Redirect cache inspection endpoints")
+public class CacheAdminController {
+
+    @Inject
+    HotKeyTracker hotKeyTracker;
+
+    /**
+     * Most requested short codes on this pod right now (decayed counts)
+     */
+    @GET
+    @Path("/hot")
+    @RolesAllowed("admin")
+    public Response getHotKeys() {
+        List<HotKeyTracker.HotKey> hotKeys = hotKeyTracker.hotKeys();
+        long pinned = hotKeys.stream().filter(HotKeyTracker.HotKey::pinned).count();
+
+        return Response.ok(Map.of(
+                "hotKeys", hotKeys,
+                "count", hotKeys.size(),
+                "pinned", pinned
+        )).build();
+    }
+}
@@ -1,6 +1,8 @@
 package com.example.controller;
 
+import com.example.config.AppConfig;
 import com.example.service.Impl.RedirectService;
+import io.smallrye.mutiny.Uni;
 import jakarta.annotation.security.PermitAll;
 import jakarta.inject.Inject;
 import jakarta.ws.rs.GET;
@@ -8,7 +10,9 @@ import jakarta.ws.rs.Path;
 import jakarta.ws.rs.PathParam;
 import jakarta.ws.rs.QueryParam;
 import jakarta.ws.rs.core.Context;
+import jakarta.ws.rs.core.Cookie;
 import jakarta.ws.rs.core.HttpHeaders;
+import jakarta.ws.rs.core.NewCookie;
 import jakarta.ws.rs.core.Response;
 import jakarta.ws.rs.core.UriInfo;
 import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
@@ -26,6 +30,9 @@ public class RedirectController {
     @Inject
     RedirectService redirectService;
 
+    @Inject
+    AppConfig appConfig;
+
     @Context
     HttpHeaders headers;
 
@@ -35,37 +42,69 @@ public class RedirectController {
     @GET
     @Path("/{shortCode}")
     @PermitAll
-    public Response redirect(
+    public Uni<Response> redirect(
             @PathParam("shortCode")
             @Parameter(description = "Short code", example = "aB3xK")
             String shortCode,
 
             @QueryParam("password")
             @Parameter(description = "Password (if URL is password-protected)")
-            String password) {
+            String password,
 
-        LOG.infof("Redirect request: %s", shortCode);
+            @QueryParam("unlock")
+            @Parameter(description = "Unlock token from an earlier successful password check")
+            String unlockToken) {
 
         // Extract request metadata
         String ipAddress = getClientIpAddress();
         String userAgent = headers.getHeaderString("User-Agent");
         String referer = headers.getHeaderString("Referer");
+        String country = headers.getHeaderString(appConfig.redirect().countryHeader());
+
+        // Unlock token: query param (cookie-less clients) or the cookie we set earlier
+        if (unlockToken == null) {
+            Cookie cookie = headers.getCookies().get(appConfig.unlockToken().cookieName());
+            unlockToken = cookie != null ? cookie.getValue() : null;
+        }
+
+        // Resolve short code to original URL (non-blocking, runs on the event loop)
+        return redirectService.resolveShortCode(
+                        shortCode,
+                        password,
+                        unlockToken,
+                        ipAddress,
+                        userAgent,
+                        referer,
+                        country
+                )
+                .onItem().transform(target -> {
+                    LOG.debugf("Redirecting %s -> %s", shortCode, target.getOriginalUrl());
+
+                    // Redirect with the link's status and cache policy
+                    Response.ResponseBuilder response = Response.status(target.getStatus())
+                            .location(URI.create(target.getOriginalUrl()))
+                            .header("Cache-Control", target.getCacheControl());
+                    if (target.getSurrogateKey() != null) {
+                        response.header("Surrogate-Key", target.getSurrogateKey());
+                    }
+                    if (target.getUnlockToken() != null) {
+                        response.cookie(unlockCookie(shortCode, target.getUnlockToken()));
+                    }
+                    return response.build();
+                });
+    }
 
-        // Resolve short code to original URL
-        String originalUrl = redirectService.resolveShortCode(
-                shortCode,
-                password,
-                ipAddress,
-                userAgent,
-                referer
-        );
-
-        LOG.infof("Redirecting %s -> %s", shortCode, originalUrl);
-
-        // Return 302 redirect
-        return Response.status(Response.Status.FOUND)
-                .location(URI.create(originalUrl))
-                .header("Cache-Control", "no-cache, no-store, must-revalidate")
+    /**
+     * Scoped to this short code only, so one link's token is never sent to another
+     */
+    private NewCookie unlockCookie(String shortCode, String token) {
+        return new NewCookie.Builder(appConfig.unlockToken().cookieName())
+                .value(token)
+                .path("/" + shortCode)
+                .maxAge((int) appConfig.unlockToken().ttl().toSeconds())
+                .httpOnly(true)
+                .secure(appConfig.baseUrl().startsWith("https://"))
+                .sameSite(NewCookie.SameSite.LAX)
                 .build();
     }
 
@@ -0,0 +1,158 @@
+package com.example.controller;
+
+import com.example.config.AppConfig;
+import com.example.dto.ErrorResponse;
+import com.example.dto.RedirectTarget;
+import com.example.exception.GlobalExceptionHandler;
+import com.example.service.Impl.AccessLog;
+import com.example.service.Impl.RedirectService;
+import com.example.service.Impl.ShortCodeGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.vertx.core.Context;
+import io.vertx.core.http.Cookie;
+import io.vertx.core.http.CookieSameSite;
+import io.vertx.core.http.HttpHeaders;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.core.http.HttpServerResponse;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.core.Response;
+import org.jboss.logging.Logger;
+
+import java.util.regex.Pattern;
+
+/**
+ * Lean redirect handler registered directly on the Vert.x router.
+ * <p>
+ * Serves {@code GET /{shortCode}} without JAX-RS dispatch and the
+ * {@code ContainerRequestFilter}s in SecurityConfig; resolution is still
+ * {@link RedirectService} and errors are mapped by {@link GlobalExceptionHandler},
+ * so responses match {@link RedirectController}. Anything that is not a
+ * valid, unreserved short code falls through to JAX-RS. Disable with
+ * app.redirect.fast-route=false to fall back to RedirectController.
+ */
+@ApplicationScoped
+public class RedirectRoute {
+
+    private static final Logger LOG = Logger.getLogger(RedirectRoute.class);
+    private static final Pattern SHORT_CODE = Pattern.compile("[a-zA-Z0-9-]+");
+
+    @Inject
+    RedirectService redirectService;
+
+    @Inject
+    ShortCodeGenerator shortCodeGenerator;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    ObjectMapper objectMapper;
+
+    @Inject
+    AccessLog accessLog;
+
+    private final GlobalExceptionHandler exceptionHandler = new GlobalExceptionHandler();
+
+    void register(@Observes Router router) {
+        if (!appConfig.redirect().fastRoute()) {
+            LOG.info("Fast redirect route disabled, redirects go through JAX-RS");
+            return;
+        }
+        router.get("/:shortCode").handler(this::redirect);
+    }
+
+    void redirect(RoutingContext ctx) {
+        String shortCode = ctx.pathParam("shortCode");
+        if (!SHORT_CODE.matcher(shortCode).matches() || shortCodeGenerator.isReserved(shortCode)) {
+            ctx.next();
+            return;
+        }
+
+        HttpServerRequest request = ctx.request();
+        String unlockToken = request.getParam("unlock");
+        if (unlockToken == null) {
+            Cookie cookie = request.getCookie(appConfig.unlockToken().cookieName());
+            unlockToken = cookie != null ? cookie.getValue() : null;
+        }
+
+        // Resolution may complete on a pool thread; write the response on the request's context
+        Context context = ctx.vertx().getOrCreateContext();
+        redirectService.resolveShortCode(
+                        shortCode,
+                        request.getParam("password"),
+                        unlockToken,
+                        clientIpAddress(request),
+                        request.getHeader(HttpHeaders.USER_AGENT),
+                        request.getHeader(HttpHeaders.REFERER),
+                        request.getHeader(appConfig.redirect().countryHeader()))
+                .emitOn(command -> context.runOnContext(ignored -> command.run()))
+                .subscribe().with(
+                        target -> sendRedirect(ctx, shortCode, target),
+                        failure -> sendError(ctx, failure));
+    }
+
+    private void sendRedirect(RoutingContext ctx, String shortCode, RedirectTarget target) {
+        HttpServerResponse response = ctx.response()
+                .setStatusCode(target.getStatus())
+                .putHeader(HttpHeaders.LOCATION, target.getOriginalUrl())
+                .putHeader(HttpHeaders.CACHE_CONTROL, target.getCacheControl());
+        if (target.getSurrogateKey() != null) {
+            response.putHeader("Surrogate-Key", target.getSurrogateKey());
+        }
+
+        if (target.getUnlockToken() != null) {
+            // Scoped to this short code only, as in RedirectController
+            response.addCookie(Cookie.cookie(appConfig.unlockToken().cookieName(), target.getUnlockToken())
+                    .setPath("/" + shortCode)
+                    .setMaxAge(appConfig.unlockToken().ttl().toSeconds())
+                    .setHttpOnly(true)
+                    .setSecure(appConfig.baseUrl().startsWith("https://"))
+                    .setSameSite(CookieSameSite.LAX));
+        }
+        response.end();
+    }
+
+    private void sendError(RoutingContext ctx, Throwable failure) {
+        if (ctx.response().ended()) {
+            return;
+        }
+
+        Exception exception = failure instanceof Exception e ? e : new RuntimeException(failure);
+        Response mapped = exceptionHandler.toResponse(exception);
+        ErrorResponse body = (ErrorResponse) mapped.getEntity();
+        body.setPath(ctx.normalizedPath());
+        accessLog.onServerError(ctx, mapped.getStatus());
+
+        HttpServerResponse response = ctx.response()
+                .setStatusCode(mapped.getStatus())
+                .putHeader(HttpHeaders.CONTENT_TYPE, "application/json");
+        mapped.getStringHeaders().forEach((name, values) -> response.putHeader(name, values));
+
+        try {
+            response.end(objectMapper.writeValueAsString(body));
+        } catch (JsonProcessingException e) {
+            LOG.errorf("Failed to write error response for %s: %s", ctx.normalizedPath(), e.getMessage());
+            response.end();
+        }
+    }
+
+    private String clientIpAddress(HttpServerRequest request) {
+        // Same precedence as RedirectController: X-Forwarded-For, X-Real-IP, then the peer
+        String xForwardedFor = request.getHeader("X-Forwarded-For");
+        if (xForwardedFor != null && !xForwardedFor.isEmpty()) {
+            return xForwardedFor.split(",")[0].trim();
+        }
+
+        String xRealIp = request.getHeader("X-Real-IP");
+        if (xRealIp != null && !xRealIp.isEmpty()) {
+            return xRealIp;
+        }
+
+        return request.remoteAddress() != null ? request.remoteAddress().host() : null;
+    }
+}
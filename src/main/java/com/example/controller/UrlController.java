@@ -1,11 +1,13 @@
 package com.example.controller;
 
 import com.example.dto.*;
+import com.example.service.IAnalyticsService;
 import com.example.service.IQRCodeService;
 import com.example.service.IUrlService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.inject.Inject;
 import jakarta.validation.Valid;
+import jakarta.validation.ValidationException;
 import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
@@ -14,6 +16,10 @@ import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.logging.Logger;
 
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+
 @Path("/api/urls")
 @Produces(MediaType.APPLICATION_JSON)
 @Consumes(MediaType.APPLICATION_JSON)
@@ -28,6 +34,9 @@ public class UrlController {
     @Inject
     IQRCodeService qrCodeService;
 
+    @Inject
+    IAnalyticsService analyticsService;
+
     @POST
     @Path("/shorten")
     @RolesAllowed("user")
@@ -37,11 +46,23 @@ public class UrlController {
 
         ShortenResponse response = urlService.shorten(request);
 
-        return Response.status(Response.Status.CREATED)
+        return Response.status(Boolean.TRUE.equals(response.getReused()) ? Response.Status.OK : Response.Status.CREATED)
                 .entity(response)
                 .build();
     }
 
+    @POST
+    @Path("/shorten/batch")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response shortenBatch(@Valid BatchShortenRequest request) {
+        LOG.infof("Batch shorten request received: %d items", request.getItems().size());
+
+        BatchShortenResponse response = urlService.shortenBatch(request);
+
+        return Response.ok(response).build();
+    }
+
     @GET
     @RolesAllowed("user")
     @SecurityRequirement(name = "bearer-jwt")
@@ -102,6 +123,72 @@ public class UrlController {
         return Response.noContent().build();
     }
 
+    @GET
+    @Path("/{shortCode}/analytics")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response getAnalytics(
+            @PathParam("shortCode") String shortCode,
+            @QueryParam("from") @Parameter(description = "ISO-8601 instant, inclusive (default: 7 days before 'to')") String from,
+            @QueryParam("to") @Parameter(description = "ISO-8601 instant, exclusive (default: now)") String to,
+            @QueryParam("granularity") @DefaultValue("DAY") AnalyticsGranularity granularity) {
+
+        LOG.debugf("Get analytics: %s (from: %s, to: %s, granularity: %s)", shortCode, from, to, granularity);
+
+        ClickAnalyticsResponse response = analyticsService.getClickAnalytics(
+                shortCode, parseInstant("from", from), parseInstant("to", to), granularity);
+
+        return Response.ok(response).build();
+    }
+
+    @GET
+    @Path("/{shortCode}/clicks/live")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response getLiveClicks(
+            @PathParam("shortCode") String shortCode,
+            @QueryParam("window") @DefaultValue("HOUR") ClickSeriesWindow window) {
+
+        LOG.debugf("Get live clicks: %s (window: %s)", shortCode, window);
+
+        ClickSeriesResponse response = analyticsService.getLiveClicks(shortCode, window);
+
+        return Response.ok(response).build();
+    }
+
+    @GET
+    @Path("/{shortCode}/visitors")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response getUniqueVisitors(
+            @PathParam("shortCode") String shortCode,
+            @QueryParam("from") @Parameter(description = "UTC day, inclusive (default: 6 days before 'to')") String from,
+            @QueryParam("to") @Parameter(description = "UTC day, inclusive (default: today)") String to) {
+
+        LOG.debugf("Get unique visitors: %s (from: %s, to: %s)", shortCode, from, to);
+
+        UniqueVisitorsResponse response = analyticsService.getUniqueVisitors(
+                shortCode, parseDate("from", from), parseDate("to", to));
+
+        return Response.ok(response).build();
+    }
+
+    @GET
+    @Path("/{shortCode}/top-values")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response getTopValues(
+            @PathParam("shortCode") String shortCode,
+            @QueryParam("dimension") @DefaultValue("REFERER") TopValuesDimension dimension,
+            @QueryParam("limit") @DefaultValue("10") int limit) {
+
+        LOG.debugf("Get top values: %s (dimension: %s, limit: %d)", shortCode, dimension, limit);
+
+        TopValuesResponse response = analyticsService.getTopValues(shortCode, dimension, limit);
+
+        return Response.ok(response).build();
+    }
+
     @GET
     @Path("/{shortCode}/qr")
     @Produces("image/png")
@@ -127,6 +214,28 @@ public class UrlController {
                 .build();
     }
 
+    private static Instant parseInstant(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return Instant.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("'" + name + "' must be an ISO-8601 instant, e.g. 2026-01-31T00:00:00Z");
+        }
+    }
+
+    static LocalDate parseDate(String name, String value) {
+        if (value == null || value.isEmpty()) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(value);
+        } catch (DateTimeParseException e) {
+            throw new ValidationException("'" + name + "' must be an ISO-8601 date, e.g. 2026-01-31");
+        }
+    }
+
     private String buildShortUrl(String shortCode) {
         // TODO: Get base URL from config
         return "http://localhost:30900/" + shortCode;
@@ -2,6 +2,8 @@ package com.example.controller;
 
 import com.example.domain.User;
 import com.example.dto.UserProfileResponse;
+import com.example.dto.UserVisitorsResponse;
+import com.example.service.IAnalyticsService;
 import com.example.service.IUserService;
 import jakarta.annotation.security.RolesAllowed;
 import jakarta.enterprise.inject.Instance;
@@ -10,6 +12,7 @@ import jakarta.ws.rs.*;
 import jakarta.ws.rs.core.MediaType;
 import jakarta.ws.rs.core.Response;
 import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.eclipse.microprofile.openapi.annotations.parameters.Parameter;
 import org.eclipse.microprofile.openapi.annotations.security.SecurityRequirement;
 import org.eclipse.microprofile.openapi.annotations.tags.Tag;
 import org.jboss.logging.Logger;
@@ -28,6 +31,9 @@ public class UserController {
     @Inject
     IUserService userService;
 
+    @Inject
+    IAnalyticsService analyticsService;
+
     @POST
     @Path("/sync")
     @RolesAllowed("user")
@@ -72,4 +78,20 @@ public class UserController {
 
         return Response.ok(profile).build();
     }
+
+    @GET
+    @Path("/me/visitors")
+    @RolesAllowed("user")
+    @SecurityRequirement(name = "bearer-jwt")
+    public Response getUniqueVisitors(
+            @QueryParam("from") @Parameter(description = "UTC day, inclusive (default: 6 days before 'to')") String from,
+            @QueryParam("to") @Parameter(description = "UTC day, inclusive (default: today)") String to) {
+
+        LOG.debugf("Get unique visitors across links (from: %s, to: %s)", from, to);
+
+        UserVisitorsResponse response = analyticsService.getUserUniqueVisitors(
+                UrlController.parseDate("from", from), UrlController.parseDate("to", to));
+
+        return Response.ok(response).build();
+    }
 }
\ No newline at end of file
@@ -11,12 +11,13 @@ import java.util.UUID;
         @Index(name = "idx_urls_short_code", columnList = "short_code", unique = true),
         @Index(name = "idx_urls_user_id", columnList = "user_id"),
         @Index(name = "idx_urls_created_at", columnList = "created_at"),
-        @Index(name = "idx_urls_active", columnList = "is_active")
+        @Index(name = "idx_urls_active", columnList = "is_active"),
+        @Index(name = "idx_urls_user_canonical_hash", columnList = "user_id, canonical_url_hash")
 })
 public class Url extends PanacheEntityBase {
 
+    // Assigned from blocks leased off urls_id_seq (see ShortCodeGenerator.nextId)
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
     public Long id;
 
     @Column(name = "short_code", nullable = false, unique = true, length = 10)
@@ -25,6 +26,10 @@ public class Url extends PanacheEntityBase {
     @Column(name = "original_url", nullable = false, columnDefinition = "TEXT")
     public String originalUrl;
 
+    // Dedup key (UrlCanonicalizer.hash of the canonical original URL)
+    @Column(name = "canonical_url_hash")
+    public Long canonicalUrlHash;
+
     @Column(name = "user_id", nullable = false, columnDefinition = "UUID")
     public UUID userId;
 
@@ -44,6 +49,16 @@ public class Url extends PanacheEntityBase {
     @Column(name = "expires_at")
     public Instant expiresAt;
 
+    // Redirect caching policy (edge/browser)
+    @Column(name = "redirect_status", nullable = false)
+    public Integer redirectStatus = 302;
+
+    @Column(name = "redirect_max_age", nullable = false)
+    public Integer redirectMaxAge = 0;
+
+    @Column(name = "surrogate_key", length = 64)
+    public String surrogateKey;
+
     // Status
     @Column(name = "is_active", nullable = false)
     public Boolean isActive = true;
@@ -0,0 +1,61 @@
+package com.example.domain;
+
+import java.time.Instant;
+
+/**
+ * Everything the redirect hot path needs to resolve and validate a short
+ * code without going to the database. Cached under {@code url:{code}}.
+ *
+ * @param id           urls.id (for click events)
+ * @param shortCode    the short code
+ * @param originalUrl  redirect target
+ * @param active       urls.is_active
+ * @param expiresAt    expiry, or null if the link never expires
+ * @param passwordHash BCrypt hash, or null if the link is not protected
+ * @param redirectStatus 301/302/307/308
+ * @param redirectMaxAge seconds the redirect may be cached downstream (0 = not cacheable)
+ * @param surrogateKey CDN surrogate key, or null
+ * @param loadedAtMillis when this record was read from the database (cache freshness)
+ * @param loadMillis   how long that database load took (drives early refresh)
+ */
+public record UrlResolution(
+        long id,
+        String shortCode,
+        String originalUrl,
+        boolean active,
+        Instant expiresAt,
+        String passwordHash,
+        int redirectStatus,
+        int redirectMaxAge,
+        String surrogateKey,
+        long loadedAtMillis,
+        int loadMillis) {
+
+    public static UrlResolution from(Url url) {
+        return from(url, System.currentTimeMillis(), 0);
+    }
+
+    public static UrlResolution from(Url url, long loadedAtMillis, int loadMillis) {
+        return new UrlResolution(
+                url.id,
+                url.shortCode,
+                url.originalUrl,
+                Boolean.TRUE.equals(url.isActive),
+                url.expiresAt,
+                url.hasPassword() ? url.passwordHash : null,
+                url.redirectStatus != null ? url.redirectStatus : 302,
+                url.redirectMaxAge != null ? url.redirectMaxAge : 0,
+                url.surrogateKey,
+                loadedAtMillis,
+                loadMillis
+        );
+    }
+
+    public boolean isExpired() {
+        return expiresAt != null && Instant.now().isAfter(expiresAt);
+    }
+
+    public boolean hasPassword() {
+        return passwordHash != null;
+    }
+}
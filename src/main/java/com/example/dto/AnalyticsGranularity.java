@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Time bucket size of click analytics (UTC)
+ */
+public enum AnalyticsGranularity {
+    HOUR(ChronoUnit.HOURS),
+    DAY(ChronoUnit.DAYS);
+
+    private final ChronoUnit unit;
+
+    AnalyticsGranularity(ChronoUnit unit) {
+        this.unit = unit;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * Items are validated one by one so a bad item fails alone, not the batch
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchShortenRequest {
+    @NotEmpty(message = "At least one item is required")
+    private List<ShortenRequest> items;
+}
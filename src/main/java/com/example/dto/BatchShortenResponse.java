@@ -0,0 +1,16 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchShortenResponse {
+    private int created;
+    private int failed;
+    private List<BatchShortenResult> results;
+}
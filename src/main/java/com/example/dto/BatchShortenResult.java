@@ -0,0 +1,18 @@
+package com.example.dto;
+
+import lombok.*;
+
+/**
+ * Outcome of one batch item: {@code url} when created, {@code error} otherwise
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class BatchShortenResult {
+    private int index;
+    private int status;
+    private ShortenResponse url;
+    private String error;
+}
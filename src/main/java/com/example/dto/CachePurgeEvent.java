@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.Set;
+
+/**
+ * Tells the edge to drop cached redirects tagged with any of the surrogate keys
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class CachePurgeEvent {
+    private String shortCode;
+    private Set<String> surrogateKeys;
+    private Instant timestamp;
+}
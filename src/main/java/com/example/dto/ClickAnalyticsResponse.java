@@ -0,0 +1,28 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Clicks of one link in [from, to), answered from the rollup tables.
+ * Dimension maps hold the top values, highest first.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickAnalyticsResponse {
+    private String shortCode;
+    private AnalyticsGranularity granularity;
+    private Instant from;
+    private Instant to;
+    private long totalClicks;
+    private List<ClickTimeBucket> timeseries;
+    private Map<String, Long> referers;
+    private Map<String, Long> countries;
+    private Map<String, Long> devices;
+}
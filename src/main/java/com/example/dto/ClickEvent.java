@@ -15,5 +15,6 @@ public class ClickEvent {
     private String ipAddress;
     private String userAgent;
     private String referer;
+    private String country;
     private Instant timestamp;
 }
@@ -0,0 +1,20 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.util.List;
+
+/**
+ * Live clicks of one link (Valkey counters, current bucket included)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickSeriesResponse {
+    private String shortCode;
+    private ClickSeriesWindow window;
+    private long totalClicks;
+    private List<ClickTimeBucket> timeseries;
+}
@@ -0,0 +1,27 @@
+package com.example.dto;
+
+import java.time.temporal.ChronoUnit;
+
+/**
+ * Live click chart windows: the last hour by minute, the last day by hour
+ */
+public enum ClickSeriesWindow {
+    HOUR(ChronoUnit.MINUTES, 60),
+    DAY(ChronoUnit.HOURS, 24);
+
+    private final ChronoUnit unit;
+    private final int buckets;
+
+    ClickSeriesWindow(ChronoUnit unit, int buckets) {
+        this.unit = unit;
+        this.buckets = buckets;
+    }
+
+    public ChronoUnit getUnit() {
+        return unit;
+    }
+
+    public int getBuckets() {
+        return buckets;
+    }
+}
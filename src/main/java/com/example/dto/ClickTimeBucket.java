@@ -0,0 +1,15 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class ClickTimeBucket {
+    private Instant bucket;
+    private long clicks;
+}
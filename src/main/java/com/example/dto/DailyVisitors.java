@@ -0,0 +1,15 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class DailyVisitors {
+    private LocalDate day;
+    private long visitors;
+}
@@ -0,0 +1,30 @@
+package com.example.dto;
+
+import lombok.*;
+
+/**
+ * Result of resolving a short code: where to redirect and how the response may be cached
+ */
+@Getter
+@AllArgsConstructor
+@Builder
+public class RedirectTarget {
+    private String originalUrl;
+
+    /**
+     * 301, 302, 307 or 308
+     */
+    private int status;
+
+    private String cacheControl;
+
+    /**
+     * Surrogate-Key header value for cacheable redirects (null otherwise)
+     */
+    private String surrogateKey;
+
+    /**
+     * Unlock token issued after a successful password check (null otherwise)
+     */
+    private String unlockToken;
+}
@@ -1,6 +1,8 @@
 package com.example.dto;
 
 import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.AllArgsConstructor;
@@ -29,4 +31,27 @@ public class ShortenRequest {
     private String password;
 
     private Instant expiresAt;
+
+    /**
+     * 301, 302, 307 or 308 (default 302)
+     */
+    private Integer redirectStatus;
+
+    /**
+     * Seconds the edge/browsers may cache the redirect (0 = not cacheable)
+     */
+    @Min(value = 0, message = "Max-age cannot be negative")
+    @Max(value = 31536000, message = "Max-age cannot exceed one year")
+    private Integer redirectMaxAge;
+
+    /**
+     * Return the caller's existing link to the same (canonicalized) URL
+     * instead of creating a new one. Ignored with a custom alias, password
+     * or expiry, which always create a distinct link.
+     */
+    private Boolean reuseExisting;
+
+    @Size(max = 64, message = "Surrogate key cannot exceed 64 characters")
+    @Pattern(regexp = "^[a-zA-Z0-9_-]*$", message = "Only letters, numbers, underscores and hyphens allowed")
+    private String surrogateKey;
 }
\ No newline at end of file
@@ -20,4 +20,9 @@ public class ShortenResponse {
     private Boolean hasPassword;
     private Instant expiresAt;
     private Instant createdAt;
+
+    /**
+     * True when an existing link was returned instead of a new one
+     */
+    private Boolean reused;
 }
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import lombok.*;
+
+/**
+ * A tracked value: its true count lies in [count - error, count]
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopValue {
+    private String value;
+    private long count;
+    private long error;
+    /**
+     * Certainly among the true top values of this size, whatever the error
+     */
+    private boolean guaranteed;
+}
@@ -0,0 +1,9 @@
+package com.example.dto;
+
+/**
+ * Click attributes tracked with top-k sketches
+ */
+public enum TopValuesDimension {
+    REFERER,
+    USER_AGENT
+}
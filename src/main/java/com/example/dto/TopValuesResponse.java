@@ -0,0 +1,26 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * Most frequent values of one click attribute of a link, from a Space-Saving
+ * sketch (as of its last checkpoint). A value not listed occurred at most
+ * maxError times; maxError never exceeds totalClicks / capacity.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class TopValuesResponse {
+    private String shortCode;
+    private TopValuesDimension dimension;
+    private long totalClicks;
+    private int capacity;
+    private long maxError;
+    private Instant checkpointedAt;
+    private List<TopValue> items;
+}
@@ -0,0 +1,24 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Estimated distinct visitors (IP + user agent) of one link over the UTC
+ * days [from, to]. Counts come from HyperLogLogs: standard error ~0.81%.
+ * The total is the union over the range, not the sum of the days.
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UniqueVisitorsResponse {
+    private String shortCode;
+    private LocalDate from;
+    private LocalDate to;
+    private long uniqueVisitors;
+    private List<DailyVisitors> daily;
+}
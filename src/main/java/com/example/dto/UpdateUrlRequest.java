@@ -1,5 +1,7 @@
 package com.example.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.Pattern;
 import jakarta.validation.constraints.Size;
 import lombok.*;
@@ -21,4 +23,20 @@ public class UpdateUrlRequest {
     private Instant expiresAt;
 
     private Boolean isActive;
+
+    /**
+     * 301, 302, 307 or 308 (default 302)
+     */
+    private Integer redirectStatus;
+
+    /**
+     * Seconds the edge/browsers may cache the redirect (0 = not cacheable)
+     */
+    @Min(value = 0, message = "Max-age cannot be negative")
+    @Max(value = 31536000, message = "Max-age cannot exceed one year")
+    private Integer redirectMaxAge;
+
+    @Size(max = 64, message = "Surrogate key cannot exceed 64 characters")
+    @Pattern(regexp = "^[a-zA-Z0-9_-]*$", message = "Only letters, numbers, underscores and hyphens allowed")
+    private String surrogateKey;
 }
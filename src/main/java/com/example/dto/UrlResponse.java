@@ -20,6 +20,9 @@ public class UrlResponse {
     private Instant expiresAt;
     private Boolean isActive;
     private Boolean isCustom;
+    private Integer redirectStatus;
+    private Integer redirectMaxAge;
+    private String surrogateKey;
     private Instant createdAt;
     private Instant updatedAt;
     private Instant lastAccessedAt;
@@ -0,0 +1,21 @@
+package com.example.dto;
+
+import lombok.*;
+
+import java.time.LocalDate;
+
+/**
+ * Estimated distinct visitors across all of a user's links over the UTC
+ * days [from, to] (merged HyperLogLogs; a visitor of several links counts once)
+ */
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class UserVisitorsResponse {
+    private LocalDate from;
+    private LocalDate to;
+    private int links;
+    private long uniqueVisitors;
+}
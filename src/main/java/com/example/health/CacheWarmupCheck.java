@@ -0,0 +1,26 @@
+package com.example.health;
+
+import com.example.service.Impl.CacheWarmer;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.eclipse.microprofile.health.HealthCheck;
+import org.eclipse.microprofile.health.HealthCheckResponse;
+import org.eclipse.microprofile.health.Readiness;
+
+/**
+ * Keeps the pod out of the load balancer until the redirect cache is warm
+ */
+@Readiness
+@ApplicationScoped
+public class CacheWarmupCheck implements HealthCheck {
+
+    @Inject
+    CacheWarmer cacheWarmer;
+
+    @Override
+    public HealthCheckResponse call() {
+        return HealthCheckResponse.named("redirect-cache-warmup")
+                .status(cacheWarmer.isWarm())
+                .build();
+    }
+}
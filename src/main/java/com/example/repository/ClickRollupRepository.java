@@ -0,0 +1,178 @@
+package com.example.repository;
+
+import com.example.dto.AnalyticsGranularity;
+import com.example.dto.ClickEvent;
+import com.example.util.ClickDimensions;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Hourly and daily click rollups (click_rollup_hourly / click_rollup_daily)
+ */
+@ApplicationScoped
+public class ClickRollupRepository {
+
+    private static final String UPSERT =
+            "INSERT INTO %1$s (url_id, bucket, referer_domain, country, device_type, clicks) " +
+                    "SELECT * FROM unnest(?::bigint[], ?::%2$s[], ?::text[], ?::text[], ?::text[], ?::bigint[]) " +
+                    "ON CONFLICT (url_id, bucket, referer_domain, country, device_type) " +
+                    "DO UPDATE SET clicks = %1$s.clicks + EXCLUDED.clicks";
+
+    /**
+     * Totals per bucket and per value of each dimension in one pass over the
+     * link's rows in the range (primary-key range scan)
+     */
+    private static final String BREAKDOWN =
+            "SELECT GROUPING(bucket), GROUPING(referer_domain), GROUPING(country), " +
+                    "bucket, referer_domain, country, device_type, SUM(clicks) " +
+                    "FROM %1$s WHERE url_id = ? AND bucket >= ?::%2$s AND bucket < ?::%2$s " +
+                    "GROUP BY GROUPING SETS ((bucket), (referer_domain), (country), (device_type))";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    /**
+     * A rollup row's key
+     */
+    public record RollupKey(long urlId, Instant bucket, String refererDomain, String country, String deviceType) {
+    }
+
+    /**
+     * One link's clicks in a time range, from the rollups only
+     */
+    public record Breakdown(Map<Instant, Long> buckets, Map<String, Long> referers,
+                            Map<String, Long> countries, Map<String, Long> devices) {
+    }
+
+    /**
+     * Add the events to both rollups on the caller's connection (and
+     * transaction). Keys are upserted in a fixed order so concurrent
+     * ingestors cannot deadlock on each other's rows.
+     */
+    public void upsert(Connection connection, List<ClickEvent> events) throws SQLException {
+        upsert(connection, AnalyticsGranularity.HOUR, aggregate(events, ChronoUnit.HOURS));
+        upsert(connection, AnalyticsGranularity.DAY, aggregate(events, ChronoUnit.DAYS));
+    }
+
+    public Breakdown breakdown(long urlId, AnalyticsGranularity granularity, Instant from, Instant to) throws SQLException {
+        String sql = String.format(BREAKDOWN, table(granularity), bucketType(granularity));
+
+        Map<Instant, Long> buckets = new HashMap<>();
+        Map<String, Long> referers = new HashMap<>();
+        Map<String, Long> countries = new HashMap<>();
+        Map<String, Long> devices = new HashMap<>();
+
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setLong(1, urlId);
+            statement.setString(2, bucketLiteral(granularity, from));
+            statement.setString(3, bucketLiteral(granularity, to));
+
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    long clicks = result.getLong(8);
+                    if (result.getInt(1) == 0) {
+                        buckets.put(bucketInstant(granularity, result, 4), clicks);
+                    } else if (result.getInt(2) == 0) {
+                        referers.put(result.getString(5), clicks);
+                    } else if (result.getInt(3) == 0) {
+                        countries.put(result.getString(6), clicks);
+                    } else {
+                        devices.put(result.getString(7), clicks);
+                    }
+                }
+            }
+        }
+        return new Breakdown(buckets, referers, countries, devices);
+    }
+
+    private void upsert(Connection connection, AnalyticsGranularity granularity, Map<RollupKey, Long> rows) throws SQLException {
+        if (rows.isEmpty()) {
+            return;
+        }
+
+        List<Map.Entry<RollupKey, Long>> sorted = new ArrayList<>(rows.entrySet());
+        sorted.sort(Map.Entry.comparingByKey(Comparator.comparingLong(RollupKey::urlId)
+                .thenComparing(RollupKey::bucket)
+                .thenComparing(RollupKey::refererDomain)
+                .thenComparing(RollupKey::country)
+                .thenComparing(RollupKey::deviceType)));
+
+        int size = sorted.size();
+        Long[] urlIds = new Long[size];
+        String[] buckets = new String[size];
+        String[] referers = new String[size];
+        String[] countries = new String[size];
+        String[] devices = new String[size];
+        Long[] clicks = new Long[size];
+        for (int i = 0; i < size; i++) {
+            RollupKey key = sorted.get(i).getKey();
+            urlIds[i] = key.urlId();
+            buckets[i] = bucketLiteral(granularity, key.bucket());
+            referers[i] = key.refererDomain();
+            countries[i] = key.country();
+            devices[i] = key.deviceType();
+            clicks[i] = sorted.get(i).getValue();
+        }
+
+        String sql = String.format(UPSERT, table(granularity), bucketType(granularity));
+        try (PreparedStatement statement = connection.prepareStatement(sql)) {
+            statement.setArray(1, connection.createArrayOf("bigint", urlIds));
+            statement.setArray(2, connection.createArrayOf("text", buckets));
+            statement.setArray(3, connection.createArrayOf("text", referers));
+            statement.setArray(4, connection.createArrayOf("text", countries));
+            statement.setArray(5, connection.createArrayOf("text", devices));
+            statement.setArray(6, connection.createArrayOf("bigint", clicks));
+            statement.executeUpdate();
+        }
+    }
+
+    private static Map<RollupKey, Long> aggregate(List<ClickEvent> events, ChronoUnit unit) {
+        Map<RollupKey, Long> rows = new HashMap<>();
+        for (ClickEvent event : events) {
+            RollupKey key = new RollupKey(
+                    event.getUrlId(),
+                    event.getTimestamp().truncatedTo(unit),
+                    ClickDimensions.refererDomain(event.getReferer()),
+                    ClickDimensions.country(event.getCountry()),
+                    ClickDimensions.deviceType(event.getUserAgent()));
+            rows.merge(key, 1L, Long::sum);
+        }
+        return rows;
+    }
+
+    private static String table(AnalyticsGranularity granularity) {
+        return granularity == AnalyticsGranularity.HOUR ? "click_rollup_hourly" : "click_rollup_daily";
+    }
+
+    private static String bucketType(AnalyticsGranularity granularity) {
+        return granularity == AnalyticsGranularity.HOUR ? "timestamptz" : "date";
+    }
+
+    private static String bucketLiteral(AnalyticsGranularity granularity, Instant instant) {
+        return granularity == AnalyticsGranularity.HOUR
+                ? instant.toString()
+                : LocalDate.ofInstant(instant, ZoneOffset.UTC).toString();
+    }
+
+    private static Instant bucketInstant(AnalyticsGranularity granularity, ResultSet result, int column) throws SQLException {
+        return granularity == AnalyticsGranularity.HOUR
+                ? result.getTimestamp(column).toInstant()
+                : result.getObject(column, LocalDate.class).atStartOfDay().toInstant(ZoneOffset.UTC);
+    }
+}
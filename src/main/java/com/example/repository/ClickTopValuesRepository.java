@@ -0,0 +1,170 @@
+package com.example.repository;
+
+import com.example.dto.TopValuesDimension;
+import com.example.util.SpaceSaving;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Checkpoints of the per-link top-k sketches (click_top_values)
+ */
+@ApplicationScoped
+public class ClickTopValuesRepository {
+
+    private static final String SELECT =
+            "SELECT url_id, dimension, capacity, total, items, counts, errors, updated_at FROM click_top_values ";
+
+    private static final String INSERT_EMPTY =
+            "INSERT INTO click_top_values (url_id, dimension, capacity, total, items, counts, errors, updated_at) " +
+                    "VALUES (?, ?, ?, 0, '{}', '{}', '{}', ?) ON CONFLICT (url_id, dimension) DO NOTHING";
+
+    private static final String UPDATE =
+            "UPDATE click_top_values SET capacity = ?, total = ?, items = ?, counts = ?, errors = ?, updated_at = ? " +
+                    "WHERE url_id = ? AND dimension = ?";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    /**
+     * One link's sketch of one dimension as of a checkpoint
+     */
+    public record Snapshot(long urlId, TopValuesDimension dimension, int capacity, long total,
+                           List<SpaceSaving.Entry> entries, Instant updatedAt) {
+    }
+
+    public Optional<Snapshot> find(long urlId, TopValuesDimension dimension) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SELECT + "WHERE url_id = ? AND dimension = ?")) {
+            statement.setLong(1, urlId);
+            statement.setString(2, dimension.name());
+            try (ResultSet result = statement.executeQuery()) {
+                return result.next() ? Optional.of(read(result)) : Optional.empty();
+            }
+        }
+    }
+
+    /**
+     * Merge sketches of the clicks counted since the last checkpoint into the
+     * stored ones, in one transaction. Missing rows are created empty, then
+     * all rows are locked in key order, so pods merging the same link queue
+     * up instead of overwriting each other's counts.
+     */
+    public void mergeAll(List<Snapshot> deltas) throws SQLException {
+        if (deltas.isEmpty()) {
+            return;
+        }
+
+        List<Snapshot> sorted = new ArrayList<>(deltas);
+        sorted.sort(Comparator.comparingLong(Snapshot::urlId).thenComparing(Snapshot::dimension));
+        Long[] urlIds = sorted.stream().map(Snapshot::urlId).distinct().toArray(Long[]::new);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                try (PreparedStatement insert = connection.prepareStatement(INSERT_EMPTY)) {
+                    for (Snapshot delta : sorted) {
+                        insert.setLong(1, delta.urlId());
+                        insert.setString(2, delta.dimension().name());
+                        insert.setInt(3, delta.capacity());
+                        insert.setTimestamp(4, Timestamp.from(delta.updatedAt()));
+                        insert.addBatch();
+                    }
+                    insert.executeBatch();
+                }
+
+                Map<String, Snapshot> stored = new HashMap<>();
+                try (PreparedStatement select = connection.prepareStatement(
+                        SELECT + "WHERE url_id = ANY(?) ORDER BY url_id, dimension FOR UPDATE")) {
+                    select.setArray(1, connection.createArrayOf("bigint", urlIds));
+                    try (ResultSet result = select.executeQuery()) {
+                        while (result.next()) {
+                            Snapshot snapshot = read(result);
+                            stored.put(key(snapshot), snapshot);
+                        }
+                    }
+                }
+
+                try (PreparedStatement update = connection.prepareStatement(UPDATE)) {
+                    for (Snapshot delta : sorted) {
+                        Snapshot current = stored.get(key(delta));
+                        SpaceSaving sketch = SpaceSaving.restore(delta.capacity(), current.total(), current.entries());
+                        sketch.merge(SpaceSaving.restore(delta.capacity(), delta.total(), delta.entries()));
+
+                        List<SpaceSaving.Entry> entries = sketch.entries();
+                        int size = entries.size();
+                        String[] items = new String[size];
+                        Long[] counts = new Long[size];
+                        Long[] errors = new Long[size];
+                        for (int i = 0; i < size; i++) {
+                            items[i] = entries.get(i).value();
+                            counts[i] = entries.get(i).count();
+                            errors[i] = entries.get(i).error();
+                        }
+
+                        update.setInt(1, sketch.capacity());
+                        update.setLong(2, sketch.total());
+                        update.setArray(3, connection.createArrayOf("text", items));
+                        update.setArray(4, connection.createArrayOf("bigint", counts));
+                        update.setArray(5, connection.createArrayOf("bigint", errors));
+                        update.setTimestamp(6, Timestamp.from(delta.updatedAt()));
+                        update.setLong(7, delta.urlId());
+                        update.setString(8, delta.dimension().name());
+                        update.addBatch();
+                    }
+                    update.executeBatch();
+                }
+                connection.commit();
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    private static String key(Snapshot snapshot) {
+        return snapshot.urlId() + ":" + snapshot.dimension();
+    }
+
+    private static Snapshot read(ResultSet result) throws SQLException {
+        String[] items = (String[]) array(result.getArray(5));
+        Long[] counts = (Long[]) array(result.getArray(6));
+        Long[] errors = (Long[]) array(result.getArray(7));
+
+        List<SpaceSaving.Entry> entries = new ArrayList<>(items.length);
+        for (int i = 0; i < items.length; i++) {
+            entries.add(new SpaceSaving.Entry(items[i], counts[i], errors[i]));
+        }
+        return new Snapshot(
+                result.getLong(1),
+                TopValuesDimension.valueOf(result.getString(2)),
+                result.getInt(3),
+                result.getLong(4),
+                entries,
+                result.getTimestamp(8).toInstant());
+    }
+
+    private static Object array(Array array) throws SQLException {
+        try {
+            return array.getArray();
+        } finally {
+            array.free();
+        }
+    }
+}
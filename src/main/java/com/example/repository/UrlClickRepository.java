@@ -0,0 +1,243 @@
+package com.example.repository;
+
+import com.example.dto.ClickEvent;
+import com.example.util.ClickDimensions;
+import io.agroal.api.AgroalDataSource;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Plain JDBC access to the partitioned url_clicks log (COPY and partition
+ * DDL have no Panache/Hibernate equivalent)
+ */
+@ApplicationScoped
+public class UrlClickRepository {
+
+    public static final String PARTITION_PREFIX = "url_clicks_";
+
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+
+    private static final String COPY_CLICKS =
+            "COPY url_clicks (url_id, short_code, clicked_at, ip_address, user_agent, referer, country, device_type) " +
+                    "FROM STDIN WITH (FORMAT text)";
+
+    private static final String LIST_PARTITIONS =
+            "SELECT child.relname FROM pg_inherits " +
+                    "JOIN pg_class parent ON parent.oid = pg_inherits.inhparent " +
+                    "JOIN pg_class child ON child.oid = pg_inherits.inhrelid " +
+                    "WHERE parent.relname = 'url_clicks' ORDER BY child.relname";
+
+    @Inject
+    AgroalDataSource dataSource;
+
+    @Inject
+    ClickRollupRepository rollupRepository;
+
+    /**
+     * Time covered by the attached monthly partitions, [from, to)
+     */
+    public record PartitionRange(Instant from, Instant to) {
+
+        public boolean contains(Instant instant) {
+            return !instant.isBefore(from) && instant.isBefore(to);
+        }
+    }
+
+    private volatile PartitionRange partitionRange;
+
+    /**
+     * Write the events with one COPY and add them to the hourly/daily
+     * rollups, in one transaction. When this returns the rows are
+     * committed; on failure nothing was written.
+     *
+     * @return rows written
+     */
+    public long ingest(List<ClickEvent> events) throws SQLException {
+        byte[] rows = encodeRows(events);
+
+        try (Connection connection = dataSource.getConnection()) {
+            connection.setAutoCommit(false);
+            try {
+                CopyIn copy = connection.unwrap(PGConnection.class).getCopyAPI().copyIn(COPY_CLICKS);
+                try {
+                    copy.writeToCopy(rows, 0, rows.length);
+                } catch (SQLException e) {
+                    copy.cancelCopy();
+                    throw e;
+                }
+                long written = copy.endCopy();
+                rollupRepository.upsert(connection, events);
+                connection.commit();
+                return written;
+            } catch (SQLException e) {
+                connection.rollback();
+                throw e;
+            } finally {
+                connection.setAutoCommit(true);
+            }
+        }
+    }
+
+    /**
+     * Create the partition for the month if it does not exist (bounds in UTC)
+     */
+    public void createMonthlyPartition(YearMonth month) throws SQLException {
+        Instant from = month.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+        Instant to = month.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC);
+
+        execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF url_clicks " +
+                "FOR VALUES FROM ('" + from + "') TO ('" + to + "')");
+    }
+
+    /**
+     * Names of the partitions currently attached to url_clicks, oldest first
+     */
+    public List<String> listPartitions() throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(LIST_PARTITIONS);
+             ResultSet result = statement.executeQuery()) {
+            List<String> partitions = new ArrayList<>();
+            while (result.next()) {
+                partitions.add(result.getString(1));
+            }
+            return partitions;
+        }
+    }
+
+    /**
+     * Range covered by the attached partitions, cached until the next
+     * {@link #refreshPartitionRange()}
+     *
+     * @return the range, or null if no monthly partition is attached
+     */
+    public PartitionRange partitionRange() throws SQLException {
+        PartitionRange range = partitionRange;
+        return range != null ? range : refreshPartitionRange();
+    }
+
+    /**
+     * Re-read the attached partitions (months are contiguous, as
+     * ClickPartitionMaintenance creates and detaches them in order)
+     */
+    public PartitionRange refreshPartitionRange() throws SQLException {
+        YearMonth oldest = null;
+        YearMonth newest = null;
+        for (String partition : listPartitions()) {
+            YearMonth month = partitionMonth(partition);
+            if (month == null) {
+                continue;
+            }
+            if (oldest == null || month.isBefore(oldest)) {
+                oldest = month;
+            }
+            if (newest == null || month.isAfter(newest)) {
+                newest = month;
+            }
+        }
+
+        PartitionRange range = oldest == null ? null : new PartitionRange(
+                oldest.atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC),
+                newest.plusMonths(1).atDay(1).atStartOfDay().toInstant(ZoneOffset.UTC));
+        partitionRange = range;
+        return range;
+    }
+
+    /**
+     * Detach a partition (a catalog change, independent of its row count)
+     * and optionally drop it
+     */
+    public void detachPartition(String partition, boolean drop) throws SQLException {
+        execute("ALTER TABLE url_clicks DETACH PARTITION " + partition);
+        if (drop) {
+            execute("DROP TABLE " + partition);
+        }
+    }
+
+    public static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + month.format(PARTITION_SUFFIX);
+    }
+
+    /**
+     * @return the partition's month, or null if the name is not a monthly partition
+     */
+    public static YearMonth partitionMonth(String partition) {
+        if (!partition.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return YearMonth.parse(partition.substring(PARTITION_PREFIX.length()), PARTITION_SUFFIX);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private void execute(String sql) throws SQLException {
+        try (Connection connection = dataSource.getConnection();
+             Statement statement = connection.createStatement()) {
+            statement.execute(sql);
+        }
+    }
+
+    /**
+     * COPY text format: tab-separated columns, one row per line, \N for null
+     */
+    private static byte[] encodeRows(List<ClickEvent> events) {
+        StringBuilder rows = new StringBuilder(events.size() * 160);
+        for (ClickEvent event : events) {
+            rows.append(event.getUrlId()).append('\t');
+            appendText(rows, event.getShortCode(), 10);
+            rows.append('\t').append(event.getTimestamp()).append('\t');
+            appendText(rows, event.getIpAddress(), 45);
+            rows.append('\t');
+            appendText(rows, event.getUserAgent(), Integer.MAX_VALUE);
+            rows.append('\t');
+            appendText(rows, event.getReferer(), Integer.MAX_VALUE);
+            rows.append('\t');
+            String country = ClickDimensions.country(event.getCountry());
+            appendText(rows, ClickDimensions.UNKNOWN.equals(country) ? null : country, 2);
+            rows.append('\t');
+            appendText(rows, ClickDimensions.deviceType(event.getUserAgent()), 50);
+            rows.append('\n');
+        }
+        return rows.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Escaped value, cut to the column's VARCHAR length so one bad event
+     * cannot fail the whole COPY
+     */
+    private static void appendText(StringBuilder rows, String value, int maxLength) {
+        if (value == null) {
+            rows.append("\\N");
+            return;
+        }
+        for (int i = 0; i < Math.min(value.length(), maxLength); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '\\' -> rows.append("\\\\");
+                case '\t' -> rows.append("\\t");
+                case '\n' -> rows.append("\\n");
+                case '\r' -> rows.append("\\r");
+                case '\0' -> {
+                    // Postgres text cannot hold NUL
+                }
+                default -> rows.append(c);
+            }
+        }
+    }
+}
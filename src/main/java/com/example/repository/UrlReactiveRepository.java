@@ -0,0 +1,60 @@
+package com.example.repository;
+
+import com.example.domain.Url;
+import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.sqlclient.Pool;
+import io.vertx.mutiny.sqlclient.Row;
+import io.vertx.mutiny.sqlclient.RowSet;
+import io.vertx.mutiny.sqlclient.Tuple;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+/**
+ * Non-blocking URL lookups for the redirect hot path.
+ * <p>
+ * Uses the reactive PostgreSQL client so a cache miss never blocks an
+ * event-loop thread. Returned entities are detached (read-only).
+ */
+@ApplicationScoped
+public class UrlReactiveRepository {
+
+    private static final String FIND_BY_SHORT_CODE =
+            "SELECT id, short_code, original_url, user_id, password_hash, expires_at, is_active, " +
+                    "redirect_status, redirect_max_age, surrogate_key " +
+                    "FROM urls WHERE short_code = $1";
+
+    @Inject
+    Pool client;
+
+    public Uni<Url> findByShortCode(String shortCode) {
+        return client.preparedQuery(FIND_BY_SHORT_CODE)
+                .execute(Tuple.of(shortCode))
+                .onItem().transform(UrlReactiveRepository::firstOrNull);
+    }
+
+    private static Url firstOrNull(RowSet<Row> rows) {
+        var iterator = rows.iterator();
+        return iterator.hasNext() ? toUrl(iterator.next()) : null;
+    }
+
+    private static Url toUrl(Row row) {
+        Url url = new Url();
+        url.id = row.getLong("id");
+        url.shortCode = row.getString("short_code");
+        url.originalUrl = row.getString("original_url");
+        url.userId = row.getUUID("user_id");
+        url.passwordHash = row.getString("password_hash");
+        url.isActive = row.getBoolean("is_active");
+        url.redirectStatus = row.getInteger("redirect_status");
+        url.redirectMaxAge = row.getInteger("redirect_max_age");
+        url.surrogateKey = row.getString("surrogate_key");
+
+        LocalDateTime expiresAt = row.getLocalDateTime("expires_at");
+        url.expiresAt = expiresAt != null ? expiresAt.toInstant(ZoneOffset.UTC) : null;
+
+        return url;
+    }
+}
@@ -5,23 +5,108 @@ import io.quarkus.hibernate.orm.panache.PanacheRepository;
 import io.quarkus.panache.common.Page;
 import io.quarkus.panache.common.Sort;
 import jakarta.enterprise.context.ApplicationScoped;
+import org.hibernate.Session;
+import org.hibernate.jpa.HibernateHints;
 
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
 import java.time.Instant;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.stream.Stream;
 
 @ApplicationScoped
 public class UrlRepository implements PanacheRepository<Url> {
 
+    private static final String BULK_INCREMENT_CLICKS =
+            "UPDATE urls u SET clicks = u.clicks + d.delta " +
+                    "FROM unnest(?::text[], ?::bigint[]) AS d(short_code, delta) " +
+                    "WHERE u.short_code = d.short_code";
+
+    private static final String BULK_INSERT =
+            "INSERT INTO urls (id, short_code, original_url, canonical_url_hash, title, password_hash, expires_at, " +
+                    "redirect_status, redirect_max_age, surrogate_key, is_custom, " +
+                    "user_id, clicks, is_active, created_at, updated_at) " +
+                    "SELECT d.*, ?::uuid, 0, TRUE, ?::timestamptz, ?::timestamptz " +
+                    "FROM unnest(?::bigint[], ?::text[], ?::text[], ?::bigint[], ?::text[], ?::text[], ?::timestamptz[], " +
+                    "?::int[], ?::int[], ?::text[], ?::boolean[]) " +
+                    "ON CONFLICT (short_code) DO NOTHING RETURNING id";
+
+    private static final String EXISTING_SHORT_CODES =
+            "SELECT short_code FROM urls WHERE short_code = ANY(?::text[])";
+
+    private static final String ID_SEQUENCE = "urls_id_seq";
+
+    /**
+     * Lease a block of IDs: the returned value is the first ID of a block of
+     * {@link #idBlockSize()} IDs no one else will get (nextval, no flush)
+     */
+    public long leaseIdBlock() {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement("SELECT nextval('" + ID_SEQUENCE + "')");
+                 ResultSet result = statement.executeQuery()) {
+                result.next();
+                return result.getLong(1);
+            }
+        });
+    }
+
+    /**
+     * INCREMENT BY of the ID sequence, i.e. how many IDs one lease covers
+     */
+    public long idBlockSize() {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(
+                    "SELECT increment_by FROM pg_sequences WHERE sequencename = ?")) {
+                statement.setString(1, ID_SEQUENCE);
+                try (ResultSet result = statement.executeQuery()) {
+                    return result.next() ? result.getLong(1) : 1L;
+                }
+            }
+        });
+    }
+
     public Optional<Url> findByShortCode(String shortCode) {
         return find("shortCode", shortCode).firstResultOptional();
     }
 
+    /**
+     * A user's active links whose canonical URL hashes to one of the given
+     * values (index probe on user_id, canonical_url_hash). Callers confirm
+     * matches by comparing canonical forms.
+     */
+    public List<Url> findActiveByCanonicalHashes(UUID userId, Collection<Long> hashes) {
+        return find("userId = ?1 and canonicalUrlHash in ?2 and isActive = true", userId, hashes).list();
+    }
+
     public boolean existsByShortCode(String shortCode) {
         return count("shortCode", shortCode) > 0;
     }
 
+    /**
+     * Stream every short code (must be consumed inside a transaction and closed)
+     */
+    public Stream<String> streamAllShortCodes() {
+        return getEntityManager()
+                .createQuery("select u.shortCode from Url u", String.class)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, 10_000)
+                .getResultStream();
+    }
+
+    /**
+     * Short codes of links created at or after the given instant (created_at index)
+     */
+    public List<String> findShortCodesCreatedSince(Instant since) {
+        return getEntityManager()
+                .createQuery("select u.shortCode from Url u where u.createdAt >= :since", String.class)
+                .setParameter("since", since)
+                .getResultList();
+    }
+
     public List<Url> findByUserId(UUID userId) {
         return find("userId", userId).list();
     }
@@ -56,6 +141,107 @@ public class UrlRepository implements PanacheRepository<Url> {
         update("clicks = clicks + 1 where id = ?1", urlId);
     }
 
+    /**
+     * Apply many click deltas in one set-based UPDATE (must run in a transaction)
+     *
+     * @return number of rows updated
+     */
+    public int incrementClicks(String[] shortCodes, Long[] deltas) {
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(BULK_INCREMENT_CLICKS)) {
+                statement.setArray(1, connection.createArrayOf("text", shortCodes));
+                statement.setArray(2, connection.createArrayOf("bigint", deltas));
+                return statement.executeUpdate();
+            }
+        });
+    }
+
+    /**
+     * Which of the given codes are already taken, in one query
+     */
+    public Set<String> findExistingShortCodes(Collection<String> shortCodes) {
+        if (shortCodes.isEmpty()) {
+            return new HashSet<>();
+        }
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(EXISTING_SHORT_CODES)) {
+                statement.setArray(1, connection.createArrayOf("text", shortCodes.toArray()));
+                Set<String> existing = new HashSet<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        existing.add(result.getString(1));
+                    }
+                }
+                return existing;
+            }
+        });
+    }
+
+    /**
+     * Insert new links of one user with a single multi-row INSERT (unnest of
+     * column arrays, must run in a transaction). Rows whose short code was
+     * taken concurrently are skipped rather than failing the statement.
+     * IDs must already be assigned; the entities are not attached.
+     *
+     * @return IDs of the rows actually inserted
+     */
+    public Set<Long> insertBatch(UUID userId, List<Url> urls, Instant createdAt) {
+        int size = urls.size();
+        Long[] ids = new Long[size];
+        String[] shortCodes = new String[size];
+        String[] originalUrls = new String[size];
+        Long[] canonicalHashes = new Long[size];
+        String[] titles = new String[size];
+        String[] passwordHashes = new String[size];
+        String[] expiresAt = new String[size];
+        Integer[] redirectStatuses = new Integer[size];
+        Integer[] redirectMaxAges = new Integer[size];
+        String[] surrogateKeys = new String[size];
+        Boolean[] custom = new Boolean[size];
+
+        for (int i = 0; i < size; i++) {
+            Url url = urls.get(i);
+            ids[i] = url.id;
+            shortCodes[i] = url.shortCode;
+            originalUrls[i] = url.originalUrl;
+            canonicalHashes[i] = url.canonicalUrlHash;
+            titles[i] = url.title;
+            passwordHashes[i] = url.passwordHash;
+            expiresAt[i] = url.expiresAt != null ? url.expiresAt.toString() : null;
+            redirectStatuses[i] = url.redirectStatus;
+            redirectMaxAges[i] = url.redirectMaxAge;
+            surrogateKeys[i] = url.surrogateKey;
+            custom[i] = url.isCustom;
+        }
+
+        return getEntityManager().unwrap(Session.class).doReturningWork(connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(BULK_INSERT)) {
+                statement.setObject(1, userId);
+                statement.setString(2, createdAt.toString());
+                statement.setString(3, createdAt.toString());
+                statement.setArray(4, connection.createArrayOf("bigint", ids));
+                statement.setArray(5, connection.createArrayOf("text", shortCodes));
+                statement.setArray(6, connection.createArrayOf("text", originalUrls));
+                statement.setArray(7, connection.createArrayOf("bigint", canonicalHashes));
+                statement.setArray(8, connection.createArrayOf("text", titles));
+                statement.setArray(9, connection.createArrayOf("text", passwordHashes));
+                statement.setArray(10, connection.createArrayOf("text", expiresAt));
+                statement.setArray(11, connection.createArrayOf("int4", redirectStatuses));
+                statement.setArray(12, connection.createArrayOf("int4", redirectMaxAges));
+                statement.setArray(13, connection.createArrayOf("text", surrogateKeys));
+                statement.setArray(14, connection.createArrayOf("bool", custom));
+
+                Set<Long> inserted = new HashSet<>();
+                try (ResultSet result = statement.executeQuery()) {
+                    while (result.next()) {
+                        inserted.add(result.getLong(1));
+                    }
+                }
+                return inserted;
+            }
+        });
+    }
+
     public void softDelete(Long urlId) {
         update("isActive = false where id = ?1", urlId);
     }
@@ -70,6 +256,21 @@ public class UrlRepository implements PanacheRepository<Url> {
                 .list();
     }
 
+    /**
+     * Stream the most clicked links that can still be redirected, in fetch-size
+     * chunks (must be consumed inside a transaction and closed)
+     */
+    public Stream<Url> streamTopActiveByClicks(int limit, int fetchSize) {
+        return getEntityManager()
+                .createQuery("from Url u where u.isActive = true and (u.expiresAt is null or u.expiresAt > :now) " +
+                        "order by u.clicks desc", Url.class)
+                .setParameter("now", Instant.now())
+                .setMaxResults(limit)
+                .setHint(HibernateHints.HINT_FETCH_SIZE, fetchSize)
+                .setHint(HibernateHints.HINT_READ_ONLY, true)
+                .getResultStream();
+    }
+
     public List<Url> searchByUserIdAndTerm(UUID userId, String searchTerm, int page, int size) {
         String query = "userId = ?1 and (lower(title) like ?2 or lower(shortCode) like ?2)";
         String term = "%" + searchTerm.toLowerCase() + "%";
@@ -0,0 +1,53 @@
+package com.example.service;
+
+import com.example.dto.AnalyticsGranularity;
+import com.example.dto.ClickAnalyticsResponse;
+import com.example.dto.ClickSeriesResponse;
+import com.example.dto.ClickSeriesWindow;
+import com.example.dto.TopValuesDimension;
+import com.example.dto.TopValuesResponse;
+import com.example.dto.UniqueVisitorsResponse;
+import com.example.dto.UserVisitorsResponse;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+/**
+ * Interface for click analytics (served from pre-aggregated rollups)
+ */
+public interface IAnalyticsService {
+
+    /**
+     * Click time series and breakdowns of the current user's link
+     *
+     * @param from inclusive, rounded down to the bucket (default: one bucket window back from {@code to})
+     * @param to   exclusive, rounded up to the bucket (default: now)
+     */
+    ClickAnalyticsResponse getClickAnalytics(String shortCode, Instant from, Instant to, AnalyticsGranularity granularity);
+
+    /**
+     * Live clicks of the current user's link over the last hour (per minute)
+     * or day (per hour), read from Valkey in one round trip
+     */
+    ClickSeriesResponse getLiveClicks(String shortCode, ClickSeriesWindow window);
+
+    /**
+     * Estimated unique visitors of the current user's link, per day and over the range
+     *
+     * @param from inclusive UTC day (default: 6 days before {@code to})
+     * @param to   inclusive UTC day (default: today)
+     */
+    UniqueVisitorsResponse getUniqueVisitors(String shortCode, LocalDate from, LocalDate to);
+
+    /**
+     * Estimated unique visitors across all of the current user's links
+     */
+    UserVisitorsResponse getUserUniqueVisitors(LocalDate from, LocalDate to);
+
+    /**
+     * Top referers or user agents of the current user's link, with error bounds
+     *
+     * @param limit values returned (at most the sketch capacity)
+     */
+    TopValuesResponse getTopValues(String shortCode, TopValuesDimension dimension, int limit);
+}
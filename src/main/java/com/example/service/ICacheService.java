@@ -1,5 +1,6 @@
 package com.example.service;
 
+import com.example.domain.UrlResolution;
 import io.smallrye.mutiny.Uni;
 
 /**
@@ -7,9 +8,9 @@ import io.smallrye.mutiny.Uni;
  */
 public interface ICacheService {
 
-    Uni<String> getOriginalUrl(String shortCode);
+    Uni<UrlResolution> getResolution(String shortCode);
 
-    Uni<Void> cacheOriginalUrl(String shortCode, String originalUrl, long ttlSeconds);
+    Uni<Void> cacheResolution(UrlResolution resolution, long ttlSeconds);
 
     Uni<Void> invalidateCache(String shortCode);
 
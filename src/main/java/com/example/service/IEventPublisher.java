@@ -2,6 +2,8 @@ package com.example.service;
 
 import com.example.domain.Url;
 
+import java.util.Set;
+
 /**
  * Interface for publishing domain events
  */
@@ -13,4 +15,9 @@ public interface IEventPublisher {
     void publishUrlUpdated(Url url);
 
     void publishUrlDeleted(String shortCode, String userId);
+
+    /**
+     * Ask the edge cache to purge redirects tagged with these surrogate keys
+     */
+    void publishCachePurge(String shortCode, Set<String> surrogateKeys);
 }
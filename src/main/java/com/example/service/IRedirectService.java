@@ -1,5 +1,8 @@
 package com.example.service;
 
+import com.example.dto.RedirectTarget;
+import io.smallrye.mutiny.Uni;
+
 /**
  * Interface for redirect and URL resolution operations
  */
@@ -9,7 +12,8 @@ public interface IRedirectService {
      * Resolve short code to original URL and handle redirect logic
      *
      * This is a HOT PATH method - performance critical!
-     * - Checks cache first (< 5ms)
+     * Fully non-blocking, safe to subscribe on the event loop.
+     * - Checks near-cache, then Valkey (< 5ms)
      * - Falls back to database if needed (10-50ms)
      * - Validates expiration, password, active status
      * - Increments click counter (async)
@@ -17,15 +21,19 @@ public interface IRedirectService {
      *
      * @param shortCode the short code to resolve
      * @param password optional password for protected URLs
+     * @param unlockToken optional token from an earlier successful password check
      * @param ipAddress client IP address for analytics
      * @param userAgent client user agent for analytics
      * @param referer referrer URL for analytics
-     * @return original URL to redirect to
-     * @throws com.example.exception.UrlNotFoundException if short code not found
-     * @throws com.example.exception.UrlExpiredException if URL expired
-     * @throws com.example.exception.PasswordRequiredException if password required but not provided
-     * @throws com.example.exception.InvalidPasswordException if password incorrect
+     * @param country client country code set by the edge, for analytics (may be null)
+     * @return original URL to redirect to, with a new unlock token if a password
+     * was checked; fails with
+     * {@link com.example.exception.UrlNotFoundException} if short code not found,
+     * {@link com.example.exception.UrlExpiredException} if URL expired,
+     * {@link com.example.exception.PasswordRequiredException} if password required but not provided,
+     * {@link com.example.exception.InvalidPasswordException} if password incorrect,
+     * {@link com.example.exception.TooManyRequestsException} if password checks are saturated
      */
-    String resolveShortCode(String shortCode, String password,
-                          String ipAddress, String userAgent, String referer);
+    Uni<RedirectTarget> resolveShortCode(String shortCode, String password, String unlockToken,
+                                         String ipAddress, String userAgent, String referer, String country);
 }
@@ -11,6 +11,8 @@ public interface IUrlService {
 
     ShortenResponse shorten(ShortenRequest request);
 
+    BatchShortenResponse shortenBatch(BatchShortenRequest request);
+
     Uni<String> redirect(String shortCode);
 
     UrlResponse getUrl(String shortCode);
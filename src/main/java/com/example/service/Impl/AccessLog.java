@@ -0,0 +1,279 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.vertx.http.runtime.CurrentVertxRequest;
+import io.quarkus.vertx.http.runtime.RouteConstants;
+import io.vertx.core.http.HttpServerRequest;
+import io.vertx.ext.web.Route;
+import io.vertx.ext.web.Router;
+import io.vertx.ext.web.RoutingContext;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.ws.rs.container.ContainerRequestContext;
+import jakarta.ws.rs.container.ContainerResponseContext;
+import jakarta.ws.rs.container.ContainerResponseFilter;
+import jakarta.ws.rs.ext.Provider;
+import org.jboss.logging.Logger;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Sampled, asynchronous access log for every HTTP request.
+ * <p>
+ * Hooked in at the very front of the Vert.x router, so it sees both the
+ * JAX-RS endpoints and the fast redirect route. Whether a request is logged
+ * is decided per route class (redirect, api, management, other) before
+ * anything is allocated, and only sampled requests get an end handler.
+ * Server errors of unsampled requests are still logged, without a duration:
+ * they are reported where the 5xx is produced (router failures, JAX-RS
+ * responses via {@link ServerErrorFilter}, and the fast redirect route)
+ * instead of checking the status of every response. Entries go into a
+ * bounded buffer that drops when full, and a single thread formats and
+ * writes them to the {@code access} logger category.
+ */
+@ApplicationScoped
+public class AccessLog {
+
+    private static final Logger LOG = Logger.getLogger(AccessLog.class);
+    private static final Logger ACCESS = Logger.getLogger("access");
+
+    private static final String ROUTE_REDIRECT = "redirect";
+    private static final String ROUTE_API = "api";
+    private static final String ROUTE_MANAGEMENT = "management";
+    private static final String ROUTE_OTHER = "other";
+
+    private static final String SAMPLED = "access-log.sampled";
+
+    private record Entry(long epochMillis, String method, String path, int status,
+                         long durationMicros, String forwardedFor, String remoteHost, String route) {
+    }
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ArrayBlockingQueue<Entry> queue;
+    private boolean enabled;
+    private boolean alwaysLogErrors;
+    private double redirectRate;
+    private double apiRate;
+    private double managementRate;
+    private double otherRate;
+
+    private Counter dropped;
+
+    private Thread writer;
+    private volatile boolean running;
+
+    @PostConstruct
+    void init() {
+        AppConfig.AccessLogConfig config = appConfig.accessLog();
+        enabled = config.enabled();
+        alwaysLogErrors = config.alwaysLogErrors();
+
+        Map<String, Double> rates = config.sampleRate();
+        double defaultRate = config.defaultSampleRate();
+        redirectRate = rates.getOrDefault(ROUTE_REDIRECT, defaultRate);
+        apiRate = rates.getOrDefault(ROUTE_API, defaultRate);
+        managementRate = rates.getOrDefault(ROUTE_MANAGEMENT, defaultRate);
+        otherRate = rates.getOrDefault(ROUTE_OTHER, defaultRate);
+
+        queue = new ArrayBlockingQueue<>(config.capacity());
+        meterRegistry.gaugeCollectionSize("url.access-log.queue.depth", List.of(), queue);
+        dropped = meterRegistry.counter("url.access-log.dropped");
+    }
+
+    void register(@Observes Router router) {
+        if (!enabled) {
+            return;
+        }
+
+        Route route = router.route().order(RouteConstants.ROUTE_ORDER_ACCESS_LOG_HANDLER).handler(this::onRequest);
+        if (alwaysLogErrors) {
+            route.failureHandler(this::onFailure);
+        }
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!enabled) {
+            return;
+        }
+
+        running = true;
+        writer = new Thread(this::write, "access-log-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (writer != null) {
+            try {
+                writer.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    void onRequest(RoutingContext ctx) {
+        String path = ctx.normalizedPath();
+        String route = routeOf(path);
+        if (ThreadLocalRandom.current().nextDouble() >= rateOf(route)) {
+            ctx.next();
+            return;
+        }
+
+        long startNanos = System.nanoTime();
+        ctx.put(SAMPLED, Boolean.TRUE);
+        ctx.addEndHandler(ignored -> enqueue(ctx.request(), path, route, ctx.response().getStatusCode(),
+                (System.nanoTime() - startNanos) / 1000));
+        ctx.next();
+    }
+
+    /**
+     * Failures that reach the router; a failure without a status ends up as a 500
+     */
+    void onFailure(RoutingContext ctx) {
+        onServerError(ctx, ctx.statusCode() < 0 ? 500 : ctx.statusCode());
+        ctx.next();
+    }
+
+    /**
+     * Logs a server error of a request that was not sampled; sampled requests are
+     * logged by their end handler. Ignores anything below 500
+     */
+    public void onServerError(RoutingContext ctx, int status) {
+        if (!enabled || !alwaysLogErrors || status < 500 || ctx.get(SAMPLED) != null) {
+            return;
+        }
+
+        String path = ctx.normalizedPath();
+        enqueue(ctx.request(), path, routeOf(path), status, -1);
+    }
+
+    private void enqueue(HttpServerRequest request, String path, String route, int status, long durationMicros) {
+        Entry entry = new Entry(
+                System.currentTimeMillis(),
+                request.method().name(),
+                path,
+                status,
+                durationMicros,
+                request.getHeader("X-Forwarded-For"),
+                request.remoteAddress() != null ? request.remoteAddress().host() : null,
+                route);
+
+        if (!queue.offer(entry)) {
+            dropped.increment();
+        }
+    }
+
+    private void write() {
+        List<Entry> batch = new ArrayList<>(256);
+        StringBuilder line = new StringBuilder(256);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                Entry first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, 255);
+                for (Entry entry : batch) {
+                    line.setLength(0);
+                    format(entry, line);
+                    ACCESS.info(line);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.errorf("Access log writer error: %s", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    /**
+     * One key=value line per request
+     */
+    private static void format(Entry entry, StringBuilder line) {
+        String clientIp = entry.forwardedFor() != null && !entry.forwardedFor().isEmpty()
+                ? entry.forwardedFor().split(",")[0].trim()
+                : entry.remoteHost();
+
+        line.append("ts=").append(Instant.ofEpochMilli(entry.epochMillis()))
+                .append(" method=").append(entry.method())
+                .append(" path=").append(entry.path())
+                .append(" status=").append(entry.status())
+                .append(" duration_us=");
+        if (entry.durationMicros() < 0) {
+            line.append('-');
+        } else {
+            line.append(entry.durationMicros());
+        }
+        line.append(" client=").append(clientIp)
+                .append(" route=").append(entry.route());
+    }
+
+    private static String routeOf(String path) {
+        if (path.startsWith("/api/")) {
+            return ROUTE_API;
+        }
+        if (path.startsWith("/q/")) {
+            return ROUTE_MANAGEMENT;
+        }
+        // Single segment: /{shortCode}
+        if (path.length() > 1 && path.indexOf('/', 1) < 0) {
+            return ROUTE_REDIRECT;
+        }
+        return ROUTE_OTHER;
+    }
+
+    private double rateOf(String route) {
+        return switch (route) {
+            case ROUTE_REDIRECT -> redirectRate;
+            case ROUTE_API -> apiRate;
+            case ROUTE_MANAGEMENT -> managementRate;
+            default -> otherRate;
+        };
+    }
+
+    /**
+     * Reports 5xx responses of JAX-RS endpoints, including those produced by
+     * exception mappers, which never reach the router's failure handlers
+     */
+    @Provider
+    public static class ServerErrorFilter implements ContainerResponseFilter {
+
+        @Inject
+        AccessLog accessLog;
+
+        @Inject
+        CurrentVertxRequest currentRequest;
+
+        @Override
+        public void filter(ContainerRequestContext requestContext, ContainerResponseContext responseContext) {
+            if (responseContext.getStatus() >= 500 && currentRequest.getCurrent() != null) {
+                accessLog.onServerError(currentRequest.getCurrent(), responseContext.getStatus());
+            }
+        }
+    }
+}
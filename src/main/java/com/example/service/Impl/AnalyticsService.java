@@ -0,0 +1,320 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.domain.Url;
+import com.example.dto.AnalyticsGranularity;
+import com.example.dto.ClickAnalyticsResponse;
+import com.example.dto.ClickSeriesResponse;
+import com.example.dto.ClickSeriesWindow;
+import com.example.dto.ClickTimeBucket;
+import com.example.dto.DailyVisitors;
+import com.example.dto.TopValue;
+import com.example.dto.TopValuesDimension;
+import com.example.dto.TopValuesResponse;
+import com.example.dto.UniqueVisitorsResponse;
+import com.example.dto.UserVisitorsResponse;
+import com.example.exception.UnauthorizedAccessException;
+import com.example.exception.UrlNotFoundException;
+import com.example.repository.ClickRollupRepository;
+import com.example.repository.ClickTopValuesRepository;
+import com.example.repository.UrlRepository;
+import com.example.repository.UserRepository;
+import com.example.service.IAnalyticsService;
+import com.example.util.SpaceSaving;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import jakarta.validation.ValidationException;
+import org.eclipse.microprofile.jwt.JsonWebToken;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Click analytics answered only from the hourly/daily rollups, so the cost
+ * depends on the number of buckets in the range, not on the size of
+ * url_clicks. Live charts and unique visitors read the Valkey counters
+ * and HyperLogLogs that ClickCounterBuffer maintains; top referers and user
+ * agents read the sketch checkpoints of ClickTopValuesTracker.
+ */
+@ApplicationScoped
+public class AnalyticsService implements IAnalyticsService {
+
+    private static final Logger LOG = Logger.getLogger(AnalyticsService.class);
+
+    @Inject
+    UrlRepository urlRepository;
+
+    @Inject
+    UserRepository userRepository;
+
+    @Inject
+    ClickRollupRepository rollupRepository;
+
+    @Inject
+    ClickTopValuesRepository topValuesRepository;
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    JsonWebToken jwt;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Override
+    public ClickAnalyticsResponse getClickAnalytics(String shortCode, Instant from, Instant to,
+                                                    AnalyticsGranularity granularity) {
+        Url url = findOwnedUrl(shortCode);
+
+        AppConfig.AnalyticsConfig config = appConfig.analytics();
+        Instant end = ceil(to != null ? to : Instant.now(), granularity);
+        Instant start = (from != null ? from : end.minus(config.defaultRange())).truncatedTo(granularity.getUnit());
+
+        if (!start.isBefore(end)) {
+            throw new ValidationException("'from' must be before 'to'");
+        }
+        Duration maxRange = granularity == AnalyticsGranularity.HOUR ? config.maxHourlyRange() : config.maxDailyRange();
+        if (Duration.between(start, end).compareTo(maxRange) > 0) {
+            throw new ValidationException(String.format("Range cannot exceed %d days at %s granularity",
+                    maxRange.toDays(), granularity.name().toLowerCase()));
+        }
+
+        ClickRollupRepository.Breakdown breakdown;
+        try {
+            breakdown = rollupRepository.breakdown(url.id, granularity, start, end);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read click rollups for " + shortCode, e);
+        }
+
+        // Every bucket in the range, zero-filled
+        List<ClickTimeBucket> timeseries = new ArrayList<>();
+        long total = 0;
+        for (Instant bucket = start; bucket.isBefore(end); bucket = bucket.plus(1, granularity.getUnit())) {
+            long clicks = breakdown.buckets().getOrDefault(bucket, 0L);
+            timeseries.add(new ClickTimeBucket(bucket, clicks));
+            total += clicks;
+        }
+
+        LOG.debugf("Analytics for %s: %d clicks in %d %s buckets", shortCode, total, timeseries.size(), granularity);
+
+        return ClickAnalyticsResponse.builder()
+                .shortCode(shortCode)
+                .granularity(granularity)
+                .from(start)
+                .to(end)
+                .totalClicks(total)
+                .timeseries(timeseries)
+                .referers(top(breakdown.referers(), config.topN()))
+                .countries(top(breakdown.countries(), config.topN()))
+                .devices(top(breakdown.devices(), config.topN()))
+                .build();
+    }
+
+    @Override
+    public ClickSeriesResponse getLiveClicks(String shortCode, ClickSeriesWindow window) {
+        findOwnedUrl(shortCode);
+
+        // Oldest bucket first, ending with the current (still filling) one
+        Instant last = Instant.now().truncatedTo(window.getUnit());
+        List<Instant> buckets = new ArrayList<>(window.getBuckets());
+        Map<String, List<String>> fieldsByKey = new LinkedHashMap<>();
+        for (int i = window.getBuckets() - 1; i >= 0; i--) {
+            Instant bucket = last.minus(i, window.getUnit());
+            buckets.add(bucket);
+            fieldsByKey.computeIfAbsent(seriesKey(shortCode, bucket), key -> new ArrayList<>())
+                    .add(seriesField(window, bucket));
+        }
+
+        // At most two day hashes, fetched in one pipelined round trip
+        Map<String, Map<String, Long>> counters = cacheService.getHashCounters(fieldsByKey)
+                .await().indefinitely();
+
+        List<ClickTimeBucket> timeseries = new ArrayList<>(buckets.size());
+        long total = 0;
+        for (Instant bucket : buckets) {
+            long clicks = counters.getOrDefault(seriesKey(shortCode, bucket), Map.of())
+                    .getOrDefault(seriesField(window, bucket), 0L);
+            timeseries.add(new ClickTimeBucket(bucket, clicks));
+            total += clicks;
+        }
+
+        return ClickSeriesResponse.builder()
+                .shortCode(shortCode)
+                .window(window)
+                .totalClicks(total)
+                .timeseries(timeseries)
+                .build();
+    }
+
+    @Override
+    public UniqueVisitorsResponse getUniqueVisitors(String shortCode, LocalDate from, LocalDate to) {
+        findOwnedUrl(shortCode);
+        List<LocalDate> days = visitorDays(from, to);
+
+        // One PFCOUNT per day plus one over the whole range (HLL union), one round trip
+        List<String> keys = days.stream().map(day -> CacheService.visitorsKey(shortCode, day)).toList();
+        List<List<String>> groups = new ArrayList<>(keys.size() + 1);
+        keys.forEach(key -> groups.add(List.of(key)));
+        groups.add(keys);
+        List<Long> counts = cacheService.countUnique(groups).await().indefinitely();
+
+        List<DailyVisitors> daily = new ArrayList<>(days.size());
+        for (int i = 0; i < days.size(); i++) {
+            daily.add(new DailyVisitors(days.get(i), counts.get(i)));
+        }
+
+        return UniqueVisitorsResponse.builder()
+                .shortCode(shortCode)
+                .from(days.get(0))
+                .to(days.get(days.size() - 1))
+                .uniqueVisitors(counts.get(days.size()))
+                .daily(daily)
+                .build();
+    }
+
+    @Override
+    public UserVisitorsResponse getUserUniqueVisitors(LocalDate from, LocalDate to) {
+        UUID userId = currentUserId();
+        List<LocalDate> days = visitorDays(from, to);
+
+        List<Url> urls = urlRepository.findByUserId(userId);
+        List<String> keys = new ArrayList<>(urls.size() * days.size());
+        for (Url url : urls) {
+            for (LocalDate day : days) {
+                keys.add(CacheService.visitorsKey(url.shortCode, day));
+            }
+        }
+
+        long unique = cacheService.countUniqueMerged(keys, appConfig.analytics().visitorMergeChunkSize())
+                .await().indefinitely();
+        LOG.debugf("Unique visitors for user %s: %d over %d links x %d days", userId, unique, urls.size(), days.size());
+
+        return UserVisitorsResponse.builder()
+                .from(days.get(0))
+                .to(days.get(days.size() - 1))
+                .links(urls.size())
+                .uniqueVisitors(unique)
+                .build();
+    }
+
+    @Override
+    public TopValuesResponse getTopValues(String shortCode, TopValuesDimension dimension, int limit) {
+        Url url = findOwnedUrl(shortCode);
+        if (limit < 1) {
+            throw new ValidationException("'limit' must be positive");
+        }
+
+        Optional<ClickTopValuesRepository.Snapshot> found;
+        try {
+            found = topValuesRepository.find(url.id, dimension);
+        } catch (SQLException e) {
+            throw new IllegalStateException("Failed to read top values for " + shortCode, e);
+        }
+        if (found.isEmpty()) {
+            return TopValuesResponse.builder()
+                    .shortCode(shortCode)
+                    .dimension(dimension)
+                    .capacity(appConfig.topValues().capacity())
+                    .items(List.of())
+                    .build();
+        }
+
+        ClickTopValuesRepository.Snapshot snapshot = found.get();
+        List<SpaceSaving.Entry> entries = snapshot.entries().stream()
+                .sorted(Comparator.comparingLong(SpaceSaving.Entry::count).reversed())
+                .toList();
+        long maxError = entries.size() < snapshot.capacity() ? 0 : entries.get(entries.size() - 1).count();
+
+        // An entry is surely in the true top-n if its lower bound beats every
+        // value below the cut, monitored (next count) or not (maxError)
+        int n = Math.min(limit, entries.size());
+        long belowCut = n < entries.size() ? entries.get(n).count() : maxError;
+        List<TopValue> items = new ArrayList<>(n);
+        for (SpaceSaving.Entry entry : entries.subList(0, n)) {
+            items.add(new TopValue(entry.value(), entry.count(), entry.error(),
+                    entry.count() - entry.error() >= belowCut));
+        }
+
+        return TopValuesResponse.builder()
+                .shortCode(shortCode)
+                .dimension(dimension)
+                .totalClicks(snapshot.total())
+                .capacity(snapshot.capacity())
+                .maxError(maxError)
+                .checkpointedAt(snapshot.updatedAt())
+                .items(items)
+                .build();
+    }
+
+    /**
+     * UTC days of a visitor range, validated against app.analytics.max-visitor-range
+     */
+    private List<LocalDate> visitorDays(LocalDate from, LocalDate to) {
+        Duration maxRange = appConfig.analytics().maxVisitorRange();
+        LocalDate end = to != null ? to : LocalDate.now(ZoneOffset.UTC);
+        LocalDate start = from != null ? from : end.minusDays(Math.min(7, maxRange.toDays()) - 1);
+
+        if (start.isAfter(end)) {
+            throw new ValidationException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(start, end) + 1 > maxRange.toDays()) {
+            throw new ValidationException(String.format("Range cannot exceed %d days", maxRange.toDays()));
+        }
+        return start.datesUntil(end.plusDays(1)).toList();
+    }
+
+    private static String seriesKey(String shortCode, Instant bucket) {
+        return CacheService.clickSeriesKey(shortCode, LocalDate.ofInstant(bucket, ZoneOffset.UTC));
+    }
+
+    private static String seriesField(ClickSeriesWindow window, Instant bucket) {
+        ZonedDateTime time = bucket.atZone(ZoneOffset.UTC);
+        return window == ClickSeriesWindow.HOUR
+                ? CacheService.minuteField(time.getHour() * 60 + time.getMinute())
+                : CacheService.hourField(time.getHour());
+    }
+
+    private Url findOwnedUrl(String shortCode) {
+        Url url = urlRepository.findByShortCode(shortCode)
+                .orElseThrow(() -> new UrlNotFoundException("URL not found: " + shortCode));
+
+        if (!url.userId.equals(currentUserId())) {
+            throw new UnauthorizedAccessException("You don't own this URL");
+        }
+        return url;
+    }
+
+    private UUID currentUserId() {
+        return userRepository.findByKeycloakId(jwt.getSubject())
+                .map(user -> user.id)
+                .orElseThrow(() -> new UnauthorizedAccessException("User not found in database"));
+    }
+
+    private static Instant ceil(Instant instant, AnalyticsGranularity granularity) {
+        Instant floor = instant.truncatedTo(granularity.getUnit());
+        return floor.equals(instant) ? floor : floor.plus(1, granularity.getUnit());
+    }
+
+    private static Map<String, Long> top(Map<String, Long> counts, int n) {
+        Map<String, Long> top = new LinkedHashMap<>();
+        counts.entrySet().stream()
+                .sorted(Map.Entry.<String, Long>comparingByValue().reversed())
+                .limit(n)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+}
@@ -1,30 +1,73 @@
 package com.example.service.Impl;
 
+import com.example.domain.UrlResolution;
 import com.example.service.ICacheService;
+import com.example.util.UrlResolutionCodec;
 import io.quarkus.redis.datasource.ReactiveRedisDataSource;
 import io.quarkus.redis.datasource.RedisDataSource;
 import io.quarkus.redis.datasource.value.ReactiveValueCommands;
 import io.quarkus.redis.datasource.value.ValueCommands;
 import io.smallrye.mutiny.Uni;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import io.vertx.mutiny.redis.client.Response;
 import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
 import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.UUID;
+import java.util.function.ToLongFunction;
 
 @ApplicationScoped
 public class CacheService implements ICacheService {
 
     private static final Logger LOG = Logger.getLogger(CacheService.class);
 
+    /**
+     * Atomically pops up to ARGV[1] dirty codes and GETDELs their counters,
+     * returning a flat [code, delta, code, delta, ...] list.
+     */
+    // Set written by pods from before the dirty set moved out of the clicks:{code} namespace
+    private static final String LEGACY_DIRTY_CLICK_COUNTERS_KEY = "clicks:dirty";
+
+    private static final String DRAIN_CLICK_COUNTERS_SCRIPT = """
+            if redis.call('TYPE', KEYS[2]).ok == 'set' then
+                redis.call('SUNIONSTORE', KEYS[1], KEYS[1], KEYS[2])
+                redis.call('DEL', KEYS[2])
+            end
+            local codes = redis.call('SPOP', KEYS[1], ARGV[1])
+            local result = {}
+            for _, code in ipairs(codes) do
+                local delta = redis.call('GETDEL', ARGV[2] .. code)
+                if delta then
+                    table.insert(result, code)
+                    table.insert(result, delta)
+                end
+            end
+            return result
+            """;
+
     @Inject
     RedisDataSource redisDataSource;
 
     @Inject
     ReactiveRedisDataSource reactiveRedisDataSource;
 
+    @Inject
+    UrlNearCache nearCache;
+
+    @Inject
+    Redis redis;
+
     private ValueCommands<String, String> stringCommands;
     private ValueCommands<String, Long> longCommands;
     private ReactiveValueCommands<String, String> valueCommands;
@@ -37,25 +80,40 @@ public class CacheService implements ICacheService {
     }
 
     @Override
-    public Uni<String> getOriginalUrl(String shortCode) {
+    public Uni<UrlResolution> getResolution(String shortCode) {
         String key = urlCacheKey(shortCode);
         return valueCommands.get(key)
-                .onItem().ifNotNull().transform(url -> {
-                    LOG.debugf("Cache HIT for short code: %s", shortCode);
-                    return url;
-                })
-                .onItem().ifNull().continueWith(() -> {
-                    LOG.debugf("Cache MISS for short code: %s", shortCode);
-                    return null;
+                .onItem().transform(value -> {
+                    UrlResolution resolution = UrlResolutionCodec.decode(shortCode, value);
+                    LOG.debugf("Cache %s for short code: %s", resolution != null ? "HIT" : "MISS", shortCode);
+                    return resolution;
                 });
     }
 
     @Override
-    public Uni<Void> cacheOriginalUrl(String shortCode, String originalUrl, long ttlSeconds) {
-        String key = urlCacheKey(shortCode);
-        return valueCommands.setex(key, ttlSeconds, originalUrl)
+    public Uni<Void> cacheResolution(UrlResolution resolution, long ttlSeconds) {
+        String key = urlCacheKey(resolution.shortCode());
+        return valueCommands.setex(key, ttlSeconds, UrlResolutionCodec.encode(resolution))
                 .replaceWithVoid()
-                .invoke(() -> LOG.debugf("Cached URL: %s -> %s (TTL: %d)", shortCode, originalUrl, ttlSeconds));
+                .invoke(() -> LOG.debugf("Cached resolution: %s (TTL: %d)", resolution.shortCode(), ttlSeconds));
+    }
+
+    /**
+     * Cache many resolution records in one pipelined round trip, each with its own TTL
+     */
+    public Uni<Void> cacheResolutions(List<UrlResolution> resolutions, ToLongFunction<UrlResolution> ttlSeconds) {
+        if (resolutions.isEmpty()) {
+            return Uni.createFrom().voidItem();
+        }
+
+        List<Request> batch = new ArrayList<>(resolutions.size());
+        for (UrlResolution resolution : resolutions) {
+            batch.add(Request.cmd(Command.SETEX)
+                    .arg(urlCacheKey(resolution.shortCode()))
+                    .arg(ttlSeconds.applyAsLong(resolution))
+                    .arg(UrlResolutionCodec.encode(resolution)));
+        }
+        return redis.batch(batch).replaceWithVoid();
     }
 
     @Override
@@ -135,6 +193,14 @@ public class CacheService implements ICacheService {
         }
     }
 
+    /**
+     * Evict a resolved URL from Valkey and from every pod's near-cache
+     */
+    public void evictUrl(String shortCode) {
+        delete(urlCacheKey(shortCode));
+        nearCache.invalidate(shortCode);
+    }
+
     public void increment(String key) {
         try {
             valueCommands.incr(key).await().indefinitely();
@@ -143,6 +209,117 @@ public class CacheService implements ICacheService {
         }
     }
 
+    /**
+     * Drain up to {@code limit} dirty click counters (pop + GETDEL in one script)
+     */
+    public Map<String, Long> drainClickCounters(int limit) {
+        Response response = redis.send(Request.cmd(Command.EVAL)
+                        .arg(DRAIN_CLICK_COUNTERS_SCRIPT)
+                        .arg(2)
+                        .arg(dirtyClickCountersKey())
+                        .arg(LEGACY_DIRTY_CLICK_COUNTERS_KEY)
+                        .arg(limit)
+                        .arg(clickCounterKey("")))
+                .await().indefinitely();
+
+        Map<String, Long> deltas = new HashMap<>();
+        for (int i = 0; i + 1 < response.size(); i += 2) {
+            deltas.put(response.get(i).toString(), response.get(i + 1).toLong());
+        }
+        return deltas;
+    }
+
+    /**
+     * Put drained click counters back (used when they could not be persisted)
+     */
+    public void restoreClickCounters(Map<String, Long> deltas) {
+        List<Request> batch = new ArrayList<>(deltas.size() + 1);
+        Request markDirty = Request.cmd(Command.SADD).arg(dirtyClickCountersKey());
+        deltas.forEach((shortCode, delta) -> {
+            batch.add(Request.cmd(Command.INCRBY).arg(clickCounterKey(shortCode)).arg(delta));
+            markDirty.arg(shortCode);
+        });
+        batch.add(markDirty);
+
+        redis.batch(batch).await().indefinitely();
+    }
+
+    /**
+     * HMGET many hashes in one pipelined round trip
+     *
+     * @return per key, the requested fields that are set, as numbers
+     */
+    public Uni<Map<String, Map<String, Long>>> getHashCounters(Map<String, List<String>> fieldsByKey) {
+        List<String> keys = new ArrayList<>(fieldsByKey.keySet());
+        List<Request> batch = new ArrayList<>(keys.size());
+        for (String key : keys) {
+            Request hmget = Request.cmd(Command.HMGET).arg(key);
+            fieldsByKey.get(key).forEach(hmget::arg);
+            batch.add(hmget);
+        }
+
+        return redis.batch(batch).onItem().transform(responses -> {
+            Map<String, Map<String, Long>> result = new HashMap<>();
+            for (int i = 0; i < keys.size(); i++) {
+                List<String> fields = fieldsByKey.get(keys.get(i));
+                Response values = responses.get(i);
+                Map<String, Long> counters = new HashMap<>();
+                for (int j = 0; j < fields.size(); j++) {
+                    Response value = values.get(j);
+                    if (value != null) {
+                        counters.put(fields.get(j), value.toLong());
+                    }
+                }
+                result.put(keys.get(i), counters);
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Estimated distinct elements of the union of each group of
+     * HyperLogLogs, one PFCOUNT per group, pipelined in one round trip
+     */
+    public Uni<List<Long>> countUnique(List<List<String>> keyGroups) {
+        List<Request> batch = new ArrayList<>(keyGroups.size());
+        for (List<String> keys : keyGroups) {
+            Request pfcount = Request.cmd(Command.PFCOUNT);
+            keys.forEach(pfcount::arg);
+            batch.add(pfcount);
+        }
+
+        return redis.batch(batch).onItem().transform(responses -> {
+            List<Long> counts = new ArrayList<>(responses.size());
+            responses.forEach(response -> counts.add(response.toLong()));
+            return counts;
+        });
+    }
+
+    /**
+     * Estimated distinct elements of the union of any number of
+     * HyperLogLogs: PFMERGE them into a scratch key (chunked, so no single
+     * command carries every key), PFCOUNT it and drop it, in one round trip
+     */
+    public Uni<Long> countUniqueMerged(List<String> keys, int chunkSize) {
+        if (keys.isEmpty()) {
+            return Uni.createFrom().item(0L);
+        }
+
+        String scratchKey = "visitors:merge:" + UUID.randomUUID();
+        List<Request> batch = new ArrayList<>();
+        for (int from = 0; from < keys.size(); from += chunkSize) {
+            Request pfmerge = Request.cmd(Command.PFMERGE).arg(scratchKey);
+            keys.subList(from, Math.min(from + chunkSize, keys.size())).forEach(pfmerge::arg);
+            batch.add(pfmerge);
+        }
+        // Short TTL first, so a failed batch cannot leak the scratch key
+        batch.add(Request.cmd(Command.EXPIRE).arg(scratchKey).arg(60));
+        batch.add(Request.cmd(Command.PFCOUNT).arg(scratchKey));
+        batch.add(Request.cmd(Command.DEL).arg(scratchKey));
+
+        return redis.batch(batch).onItem().transform(responses -> responses.get(responses.size() - 2).toLong());
+    }
+
     public boolean exists(String key) {
         try {
             return reactiveRedisDataSource.key().exists(key).await().indefinitely();
@@ -160,6 +337,37 @@ public class CacheService implements ICacheService {
         return "clicks:" + shortCode;
     }
 
+    /**
+     * Codes with unsynced click counters; outside the clicks: prefix so no
+     * short code's counter can share the key
+     */
+    public static String dirtyClickCountersKey() {
+        return "clicks-sync:dirty";
+    }
+
+    /**
+     * Live click series of one link for one UTC day (hash of
+     * {@link #minuteField}/{@link #hourField} counters)
+     */
+    public static String clickSeriesKey(String shortCode, LocalDate day) {
+        return "clicks:ts:" + shortCode + ":" + day;
+    }
+
+    /**
+     * HyperLogLog of one link's visitor fingerprints for one UTC day
+     */
+    public static String visitorsKey(String shortCode, LocalDate day) {
+        return "visitors:" + shortCode + ":" + day;
+    }
+
+    public static String minuteField(int minuteOfDay) {
+        return "m" + minuteOfDay;
+    }
+
+    public static String hourField(int hour) {
+        return "h" + hour;
+    }
+
     public static String rateLimitKey(String userId, String action) {
         return "ratelimit:" + userId + ":" + action;
     }
@@ -0,0 +1,123 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.domain.Url;
+import com.example.domain.UrlResolution;
+import com.example.repository.UrlRepository;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
+
+/**
+ * Loads the most clicked active links into Valkey and the near-cache at
+ * startup, so a fresh pod does not send its first minutes of traffic to
+ * PostgreSQL. The pod reports not-ready until warming finishes or its time
+ * budget runs out (see {@link com.example.health.CacheWarmupCheck}).
+ * <p>
+ * Entries loaded together would otherwise all go stale together, so each
+ * is back-dated by a random share of url-ttl (its Valkey TTL shortened to
+ * match), and carries its chunk's measured load time as loadMillis so
+ * the XFetch early refresh has a realistic window.
+ */
+@ApplicationScoped
+public class CacheWarmer {
+
+    private static final Logger LOG = Logger.getLogger(CacheWarmer.class);
+
+    @Inject
+    UrlRepository urlRepository;
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    UrlNearCache nearCache;
+
+    @Inject
+    AppConfig appConfig;
+
+    private volatile boolean warm;
+
+    void onStart(@Observes StartupEvent event) {
+        if (!appConfig.warmup().enabled()) {
+            warm = true;
+            return;
+        }
+        Infrastructure.getDefaultWorkerPool().execute(this::warmUp);
+    }
+
+    public boolean isWarm() {
+        return warm;
+    }
+
+    void warmUp() {
+        AppConfig.CacheWarmupConfig config = appConfig.warmup();
+        long startMillis = System.currentTimeMillis();
+        long deadline = startMillis + config.budget().toMillis();
+        long ttlSeconds = appConfig.cache().urlTtl() + appConfig.cache().staleIfError();
+        long maxAgeMillis = (long) (appConfig.cache().urlTtl() * 1000L * Math.max(0, Math.min(1, config.ttlJitter())));
+
+        AtomicInteger loaded = new AtomicInteger();
+        boolean outOfBudget = false;
+        try {
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (Stream<Url> urls = urlRepository.streamTopActiveByClicks(config.topN(), config.chunkSize())) {
+                    Iterator<Url> iterator = urls.iterator();
+                    List<Url> chunk = new ArrayList<>(config.chunkSize());
+                    long chunkStartNanos = System.nanoTime();
+
+                    while (iterator.hasNext() && System.currentTimeMillis() < deadline) {
+                        chunk.add(iterator.next());
+                        if (chunk.size() == config.chunkSize() || !iterator.hasNext()) {
+                            int loadMillis = (int) Math.max(1,
+                                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - chunkStartNanos));
+                            loaded.addAndGet(storeChunk(chunk, loadMillis, maxAgeMillis, ttlSeconds, deadline));
+                            chunk.clear();
+                            chunkStartNanos = System.nanoTime();
+                        }
+                    }
+                }
+            });
+            outOfBudget = System.currentTimeMillis() >= deadline;
+        } catch (Exception e) {
+            LOG.errorf("Cache warm-up failed after %d links, continuing cold: %s", loaded.get(), e.getMessage());
+            return;
+        } finally {
+            warm = true;
+        }
+
+        LOG.infof("Cache warm-up %s: %d links in %d ms",
+                outOfBudget ? "stopped at time budget" : "finished",
+                loaded.get(), System.currentTimeMillis() - startMillis);
+    }
+
+    private int storeChunk(List<Url> chunk, int loadMillis, long maxAgeMillis, long ttlSeconds, long deadline) {
+        long now = System.currentTimeMillis();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        List<UrlResolution> resolutions = new ArrayList<>(chunk.size());
+        for (Url url : chunk) {
+            long ageMillis = maxAgeMillis > 0 ? random.nextLong(maxAgeMillis + 1) : 0;
+            resolutions.add(UrlResolution.from(url, now - ageMillis, loadMillis));
+        }
+
+        long remainingMillis = Math.max(1, deadline - now);
+        cacheService.cacheResolutions(resolutions,
+                        resolution -> Math.max(1, ttlSeconds - (now - resolution.loadedAtMillis()) / 1000))
+                .await().atMost(Duration.ofMillis(remainingMillis));
+        resolutions.forEach(nearCache::put);
+        return resolutions.size();
+    }
+}
@@ -0,0 +1,245 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.util.VisitorFingerprint;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.vertx.mutiny.redis.client.Command;
+import io.vertx.mutiny.redis.client.Redis;
+import io.vertx.mutiny.redis.client.Request;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Local click aggregation in front of the Valkey {@code clicks:*} counters.
+ * <p>
+ * The redirect path only bumps a per-code striped {@link LongAdder}, so a
+ * hot link does not serialize its redirects on one cache line; a scheduled
+ * flush sends all accumulated deltas as one pipelined batch of INCRBY
+ * commands, and marks the codes dirty for {@link ClickCounterSync}. Codes
+ * idle for a whole interval are retired: flagged, removed, then reset once
+ * more. A click checks the flag after adding; if its counter was retired
+ * meanwhile, it resets the counter itself and re-records whatever it took
+ * on a fresh one. Each reset takes every cell atomically, so a click is
+ * collected exactly once, by the flush or by itself.
+ * The same batch adds each delta to the code's live series hash for the
+ * day (HINCRBY of the current minute and hour fields, TTL set on first
+ * write), so a hot link costs a few commands per flush, not one per click.
+ * Clicks are attributed to the minute of the flush that sends them.
+ * <p>
+ * Visitor fingerprints are deduplicated per code between flushes and sent
+ * as one PFADD per code into that day's HyperLogLog (at most 12 KB per link
+ * per day, whatever the traffic). They are best effort: a failed flush
+ * drops them rather than letting the pending sets grow.
+ * <p>
+ * A failed flush puts its deltas back for the next one. The pipeline is
+ * not idempotent: if it timed out after Valkey had applied it, those
+ * clicks are counted twice. Over-counting on a rare timeout is preferred
+ * to losing clicks on every Valkey error.
+ * Pending counts are flushed on shutdown.
+ */
+@ApplicationScoped
+public class ClickCounterBuffer {
+
+    private static final Logger LOG = Logger.getLogger(ClickCounterBuffer.class);
+
+    /**
+     * A code's clicks since the last flush, and whether drain() has retired it
+     */
+    private static final class PendingClicks {
+        final LongAdder clicks = new LongAdder();
+        volatile boolean retired;
+    }
+
+    private final ConcurrentHashMap<String, PendingClicks> counters = new ConcurrentHashMap<>();
+    // Only mutated inside compute()/remove(), so plain sets are safe
+    private final ConcurrentHashMap<String, Set<Long>> visitors = new ConcurrentHashMap<>();
+
+    @Inject
+    Redis redis;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Counter flushedClicks;
+    private Counter droppedVisitors;
+    private Timer flushTimer;
+
+    @PostConstruct
+    void init() {
+        flushedClicks = meterRegistry.counter("url.clicks.flushed");
+        droppedVisitors = meterRegistry.counter("url.visitors.dropped");
+        flushTimer = meterRegistry.timer("url.clicks.flush");
+        meterRegistry.gaugeMapSize("url.clicks.pending.codes", List.of(), counters);
+    }
+
+    /**
+     * Record one click (HOT PATH - no I/O, no locking)
+     */
+    public void increment(String shortCode) {
+        add(shortCode, 1);
+    }
+
+    private void add(String shortCode, long delta) {
+        while (true) {
+            PendingClicks pending = counters.computeIfAbsent(shortCode, key -> new PendingClicks());
+            pending.clicks.add(delta);
+            if (!pending.retired) {
+                return; // the add came before drain() set the flag, so its final reset collects it
+            }
+            // Retired meanwhile: take what its final reset may have missed and move it to a fresh counter
+            delta = pending.clicks.sumThenReset();
+            if (delta <= 0) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Record a visitor of the code (HOT PATH - no I/O; a per-key lock only)
+     */
+    public void recordVisitor(String shortCode, String ipAddress, String userAgent) {
+        if (!appConfig.clicks().visitorsEnabled()) {
+            return;
+        }
+        Long fingerprint = VisitorFingerprint.of(ipAddress, userAgent);
+        if (fingerprint == null) {
+            return;
+        }
+        visitors.compute(shortCode, (key, pending) -> {
+            Set<Long> set = pending != null ? pending : new HashSet<>();
+            set.add(fingerprint);
+            return set;
+        });
+    }
+
+    @Scheduled(every = "${app.clicks.flush-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledFlush() {
+        flush();
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        LOG.info("Flushing pending click counters before shutdown");
+        flush();
+    }
+
+    synchronized void flush() {
+        Map<String, Long> deltas = drain();
+        Map<String, Set<Long>> fingerprints = drainVisitors();
+        if (deltas.isEmpty() && fingerprints.isEmpty()) {
+            return;
+        }
+
+        boolean series = appConfig.clicks().seriesEnabled();
+        ZonedDateTime now = ZonedDateTime.now(ZoneOffset.UTC);
+        String minuteField = CacheService.minuteField(now.getHour() * 60 + now.getMinute());
+        String hourField = CacheService.hourField(now.getHour());
+        long seriesTtl = appConfig.clicks().seriesTtl().toSeconds();
+
+        List<Request> batch = new ArrayList<>(deltas.size() * (series ? 4 : 1) + fingerprints.size() * 2 + 1);
+        Request markDirty = Request.cmd(Command.SADD).arg(CacheService.dirtyClickCountersKey());
+        deltas.forEach((shortCode, delta) -> {
+            batch.add(Request.cmd(Command.INCRBY)
+                    .arg(CacheService.clickCounterKey(shortCode))
+                    .arg(delta));
+            markDirty.arg(shortCode);
+
+            if (series) {
+                String seriesKey = CacheService.clickSeriesKey(shortCode, now.toLocalDate());
+                batch.add(Request.cmd(Command.HINCRBY).arg(seriesKey).arg(minuteField).arg(delta));
+                batch.add(Request.cmd(Command.HINCRBY).arg(seriesKey).arg(hourField).arg(delta));
+                batch.add(Request.cmd(Command.EXPIRE).arg(seriesKey).arg(seriesTtl).arg("NX"));
+            }
+        });
+        if (!deltas.isEmpty()) {
+            batch.add(markDirty);
+        }
+
+        long visitorsTtl = appConfig.clicks().visitorsTtl().toSeconds();
+        fingerprints.forEach((shortCode, pending) -> {
+            String visitorsKey = CacheService.visitorsKey(shortCode, now.toLocalDate());
+            Request pfadd = Request.cmd(Command.PFADD).arg(visitorsKey);
+            pending.forEach(pfadd::arg);
+            batch.add(pfadd);
+            batch.add(Request.cmd(Command.EXPIRE).arg(visitorsKey).arg(visitorsTtl).arg("NX"));
+        });
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            redis.batch(batch)
+                    .await().atMost(appConfig.clicks().flushTimeout());
+
+            long total = deltas.values().stream().mapToLong(Long::longValue).sum();
+            flushedClicks.increment(total);
+            LOG.debugf("Flushed %d clicks for %d short codes", total, deltas.size());
+        } catch (Exception e) {
+            // Put the deltas back so the next flush retries them
+            LOG.errorf("Failed to flush %d click counters: %s", deltas.size(), e.getMessage());
+            deltas.forEach(this::add);
+            droppedVisitors.increment(fingerprints.values().stream().mapToInt(Set::size).sum());
+        } finally {
+            sample.stop(flushTimer);
+        }
+    }
+
+    /**
+     * Take the current delta of every counter, retiring codes that saw no
+     * clicks since the previous flush so the table stays bounded.
+     */
+    private Map<String, Long> drain() {
+        Map<String, Long> deltas = new HashMap<>();
+
+        counters.forEach((shortCode, pending) -> {
+            long delta = pending.clicks.sumThenReset();
+            if (delta > 0) {
+                deltas.put(shortCode, delta);
+                return;
+            }
+
+            // Flag before the final reset: an add that misses the flag is collected by it
+            pending.retired = true;
+            counters.remove(shortCode, pending);
+            long late = pending.clicks.sumThenReset();
+            if (late > 0) {
+                deltas.put(shortCode, late);
+            }
+        });
+
+        return deltas;
+    }
+
+    /**
+     * Take every code's pending fingerprints; a visitor recorded meanwhile
+     * starts a new set for the next flush.
+     */
+    private Map<String, Set<Long>> drainVisitors() {
+        Map<String, Set<Long>> drained = new HashMap<>();
+        for (String shortCode : visitors.keySet()) {
+            Set<Long> pending = visitors.remove(shortCode);
+            if (pending != null && !pending.isEmpty()) {
+                drained.put(shortCode, pending);
+            }
+        }
+        return drained;
+    }
+}
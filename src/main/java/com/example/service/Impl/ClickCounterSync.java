@@ -0,0 +1,101 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.repository.UrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Background job: sync click counters from Valkey to PostgreSQL
+ * <p>
+ * Drains dirty {@code clicks:*} counters atomically (SPOP + GETDEL in one
+ * Lua script) and applies each batch with a single
+ * {@code UPDATE ... FROM unnest(...)} statement. If the update fails the
+ * drained deltas are written back to Valkey, so no clicks are lost.
+ */
+@ApplicationScoped
+public class ClickCounterSync {
+
+    private static final Logger LOG = Logger.getLogger(ClickCounterSync.class);
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    UrlRepository urlRepository;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Timer syncTimer;
+    private Counter syncedClicks;
+
+    @PostConstruct
+    void init() {
+        syncTimer = meterRegistry.timer("url.clicks.sync");
+        syncedClicks = meterRegistry.counter("url.clicks.synced");
+    }
+
+    @Scheduled(every = "${app.clicks.sync-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void syncClickCounters() {
+        int batchSize = appConfig.clicks().syncBatchSize();
+        long startNanos = System.nanoTime();
+        int codes = 0;
+        long clicks = 0;
+
+        try {
+            Map<String, Long> deltas;
+            do {
+                deltas = cacheService.drainClickCounters(batchSize);
+                if (deltas.isEmpty()) {
+                    break;
+                }
+
+                applyBatch(deltas);
+                codes += deltas.size();
+                clicks += deltas.values().stream().mapToLong(Long::longValue).sum();
+            } while (deltas.size() >= batchSize);
+        } catch (Exception e) {
+            LOG.errorf("Click counter sync aborted: %s", e.getMessage());
+        }
+
+        long elapsedNanos = System.nanoTime() - startNanos;
+        syncTimer.record(elapsedNanos, TimeUnit.NANOSECONDS);
+        syncedClicks.increment(clicks);
+
+        if (codes > 0) {
+            LOG.infof("Synced %d clicks for %d short codes from Valkey to PostgreSQL in %d ms",
+                    clicks, codes, elapsedNanos / 1_000_000);
+        }
+    }
+
+    private void applyBatch(Map<String, Long> deltas) {
+        String[] shortCodes = deltas.keySet().toArray(String[]::new);
+        Long[] values = new Long[shortCodes.length];
+        for (int i = 0; i < shortCodes.length; i++) {
+            values[i] = deltas.get(shortCodes[i]);
+        }
+
+        try {
+            QuarkusTransaction.requiringNew().run(() -> urlRepository.incrementClicks(shortCodes, values));
+        } catch (RuntimeException e) {
+            LOG.errorf("Failed to apply %d click deltas, restoring them in Valkey: %s",
+                    deltas.size(), e.getMessage());
+            cacheService.restoreClickCounters(deltas);
+            throw e;
+        }
+    }
+}
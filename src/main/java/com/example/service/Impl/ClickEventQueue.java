@@ -0,0 +1,179 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.dto.ClickEvent;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded hand-off between the redirect path and {@link EventPublisher}.
+ * <p>
+ * Producers never block: {@link #offer(ClickEvent)} either enqueues the
+ * event or drops it according to {@link OverflowPolicy}. A single
+ * dedicated thread drains the buffer in batches and publishes to Pulsar,
+ * so a slow broker only ever fills this buffer and never the request
+ * threads or the common pool. At most app.click-events.max-in-flight sends
+ * await a broker ack; beyond that the publisher thread waits, so backlog
+ * builds up (and is dropped, counted) here rather than in the producer.
+ * Sends that fail are counted as dropped with reason "send-failed".
+ */
+@ApplicationScoped
+public class ClickEventQueue {
+
+    private static final Logger LOG = Logger.getLogger(ClickEventQueue.class);
+
+    /**
+     * What to do when the buffer fills up
+     */
+    public enum OverflowPolicy {
+        /** Accept everything until full, then drop new events */
+        DROP,
+        /** Above the sampling threshold keep only 1 in sample-rate events, drop when full */
+        SAMPLE
+    }
+
+    @Inject
+    EventPublisher eventPublisher;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ArrayBlockingQueue<ClickEvent> queue;
+    private OverflowPolicy policy;
+    private int sampleThreshold;
+    private int sampleRate;
+    private final AtomicLong sampleSequence = new AtomicLong();
+
+    private Counter droppedFull;
+    private Counter droppedSampled;
+    private Counter droppedSendFailed;
+    private Semaphore inFlight;
+    private Timer publishLatency;
+
+    private Thread consumer;
+    private volatile boolean running;
+
+    void onStart(@Observes StartupEvent event) {
+        AppConfig.ClickEventsConfig config = appConfig.clickEvents();
+        queue = new ArrayBlockingQueue<>(config.capacity());
+        policy = config.overflowPolicy();
+        sampleThreshold = (int) (config.capacity() * config.sampleThreshold());
+        sampleRate = Math.max(1, config.sampleRate());
+
+        meterRegistry.gaugeCollectionSize("url.click-events.queue.depth", List.of(), queue);
+        droppedFull = meterRegistry.counter("url.click-events.dropped", "reason", "full");
+        droppedSampled = meterRegistry.counter("url.click-events.dropped", "reason", "sampled");
+        droppedSendFailed = meterRegistry.counter("url.click-events.dropped", "reason", "send-failed");
+        inFlight = new Semaphore(config.maxInFlight());
+        meterRegistry.gauge("url.click-events.in-flight", List.of(), inFlight,
+                permits -> config.maxInFlight() - permits.availablePermits());
+        publishLatency = meterRegistry.timer("url.click-events.publish.latency");
+
+        running = true;
+        consumer = new Thread(this::consume, "click-event-publisher");
+        consumer.setDaemon(true);
+        consumer.start();
+
+        LOG.infof("Click event queue started (capacity: %d, policy: %s)", config.capacity(), policy);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        if (consumer == null) {
+            return;
+        }
+
+        try {
+            consumer.join(appConfig.clickEvents().shutdownTimeout().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        if (!queue.isEmpty()) {
+            LOG.warnf("Dropping %d unpublished click events on shutdown", queue.size());
+        }
+    }
+
+    /**
+     * Hand an event to the publisher (HOT PATH - never blocks)
+     *
+     * @return true if the event was accepted
+     */
+    public boolean offer(ClickEvent event) {
+        if (queue == null) {
+            return false;
+        }
+
+        if (policy == OverflowPolicy.SAMPLE
+                && queue.size() >= sampleThreshold
+                && sampleSequence.incrementAndGet() % sampleRate != 0) {
+            droppedSampled.increment();
+            return false;
+        }
+
+        if (!queue.offer(event)) {
+            droppedFull.increment();
+            return false;
+        }
+        return true;
+    }
+
+    private void consume() {
+        int batchSize = appConfig.clickEvents().batchSize();
+        List<ClickEvent> batch = new ArrayList<>(batchSize);
+
+        while (running || !queue.isEmpty()) {
+            try {
+                ClickEvent first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+
+                for (ClickEvent event : batch) {
+                    publish(event);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                LOG.errorf("Click event consumer error: %s", e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void publish(ClickEvent event) throws InterruptedException {
+        inFlight.acquire();
+        long startNanos = System.nanoTime();
+        eventPublisher.publishClickEvent(event)
+                .whenComplete((ignored, failure) -> {
+                    inFlight.release();
+                    if (failure == null) {
+                        publishLatency.record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+                    } else {
+                        droppedSendFailed.increment();
+                    }
+                });
+    }
+}
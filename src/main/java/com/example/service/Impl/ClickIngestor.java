@@ -0,0 +1,321 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.dto.ClickEvent;
+import com.example.repository.UrlClickRepository;
+import com.example.util.ClickEventCodec;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.apache.pulsar.client.api.BatchReceivePolicy;
+import org.apache.pulsar.client.api.Consumer;
+import org.apache.pulsar.client.api.Message;
+import org.apache.pulsar.client.api.Messages;
+import org.apache.pulsar.client.api.PulsarClient;
+import org.apache.pulsar.client.api.PulsarClientException;
+import org.apache.pulsar.client.api.Schema;
+import org.apache.pulsar.client.api.SubscriptionInitialPosition;
+import org.apache.pulsar.client.api.SubscriptionType;
+import org.eclipse.microprofile.config.inject.ConfigProperty;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drains the click-events topic into the partitioned url_clicks table and
+ * the hourly/daily click rollups.
+ * <p>
+ * A dedicated thread batch-receives up to app.click-ingest.batch-max-messages
+ * events, writes them with a single COPY, upserts their per-batch aggregates
+ * into the rollups in the same transaction, and acknowledges the batch only
+ * after that transaction has committed. A failed batch is negatively
+ * acknowledged and redelivered, so delivery is at-least-once: a crash
+ * between commit and ack can store a batch twice. Pods share one Shared
+ * subscription, so ingestion scales with replicas; a link's clicks may
+ * reach several pods, which {@link ClickTopValuesTracker} handles by merging
+ * per-pod sketches at checkpoint time. The worker subscribes with
+ * exponential backoff (retry-delay doubling up to subscribe-max-backoff),
+ * so a pod that starts while the broker or subscription is unavailable
+ * starts ingesting on its own once it is.
+ * <p>
+ * Clicks whose time falls outside the attached url_clicks partitions (an
+ * old backlog, or months already past retention) are skipped and counted
+ * as url.clicks.ingest.out-of-range, since no partition would accept them
+ * and they would fail their batch on every redelivery.
+ * <p>
+ * Throughput is exposed as url.clicks.ingested (rate) and
+ * url.clicks.ingest.batch (COPY latency).
+ */
+@ApplicationScoped
+public class ClickIngestor {
+
+    private static final Logger LOG = Logger.getLogger(ClickIngestor.class);
+
+    @ConfigProperty(name = "quarkus.pulsar.client.serviceUrl", defaultValue = "pulsar://localhost:6650")
+    String pulsarUrl;
+
+    // Same resolution as EventPublisher, so both ends agree on the topic
+    @ConfigProperty(name = "app.pulsar.topic", defaultValue = "persistent://public/default/click-events")
+    String topic;
+
+    @Inject
+    UrlClickRepository clickRepository;
+
+    @Inject
+    ClickTopValuesTracker topValuesTracker;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private PulsarClient pulsarClient;
+    // Set by the worker once subscribed, read by shutdown
+    private volatile Consumer<byte[]> consumer;
+    private Thread worker;
+    private volatile boolean running;
+
+    private Counter ingested;
+    private Counter failedBatches;
+    private Counter malformed;
+    private Counter outOfRange;
+    private Counter subscribeFailures;
+    private Timer batchTimer;
+
+    void onStart(@Observes StartupEvent event) {
+        AppConfig.ClickIngestConfig config = appConfig.clickIngest();
+        if (!config.enabled()) {
+            LOG.info("Click ingestion disabled");
+            return;
+        }
+
+        ingested = meterRegistry.counter("url.clicks.ingested");
+        failedBatches = meterRegistry.counter("url.clicks.ingest.failed");
+        malformed = meterRegistry.counter("url.clicks.ingest.malformed");
+        outOfRange = meterRegistry.counter("url.clicks.ingest.out-of-range");
+        subscribeFailures = meterRegistry.counter("url.clicks.ingest.subscribe-failed");
+        batchTimer = meterRegistry.timer("url.clicks.ingest.batch");
+
+        try {
+            pulsarClient = PulsarClient.builder()
+                    .serviceUrl(pulsarUrl)
+                    .build();
+        } catch (PulsarClientException e) {
+            LOG.error("Failed to create click ingestion Pulsar client", e);
+            return;
+        }
+
+        running = true;
+        worker = new Thread(this::run, "click-ingest");
+        worker.setDaemon(true);
+        worker.start();
+    }
+
+    /**
+     * Subscribe, retrying with exponential backoff (broker down, or the
+     * subscription briefly held by consumers it cannot be shared with)
+     *
+     * @return whether it subscribed before shutdown
+     */
+    private boolean subscribe() {
+        AppConfig.ClickIngestConfig config = appConfig.clickIngest();
+        long backoffMillis = config.retryDelay().toMillis();
+
+        while (running) {
+            try {
+                consumer = pulsarClient.newConsumer(Schema.BYTES)
+                        .topic(topic)
+                        .subscriptionName(config.subscription())
+                        .subscriptionType(SubscriptionType.Shared)
+                        .subscriptionInitialPosition(SubscriptionInitialPosition.Earliest)
+                        .receiverQueueSize(config.batchMaxMessages())
+                        .negativeAckRedeliveryDelay(config.retryDelay().toMillis(), TimeUnit.MILLISECONDS)
+                        .batchReceivePolicy(BatchReceivePolicy.builder()
+                                .maxNumMessages(config.batchMaxMessages())
+                                .maxNumBytes(config.batchMaxBytes())
+                                .timeout((int) config.batchTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                                .build())
+                        .subscribe();
+                LOG.infof("Click ingestion started (topic: %s, subscription: %s)", topic, config.subscription());
+                return true;
+            } catch (PulsarClientException e) {
+                subscribeFailures.increment();
+                LOG.warnf("Click ingestion subscribe failed, retrying in %d ms: %s", backoffMillis, e.getMessage());
+            }
+
+            try {
+                Thread.sleep(backoffMillis);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return false;
+            }
+            backoffMillis = Math.min(backoffMillis * 2, config.subscribeMaxBackoff().toMillis());
+        }
+        return false;
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        running = false;
+        try {
+            if (worker != null) {
+                if (consumer == null) {
+                    worker.interrupt(); // still backing off between subscribe attempts
+                }
+                worker.join(appConfig.clickIngest().batchTimeout().toMillis() * 2 + 5_000);
+                if (!worker.isAlive()) {
+                    topValuesTracker.checkpoint();
+                }
+            }
+            if (consumer != null) {
+                consumer.close();
+            }
+            if (pulsarClient != null) {
+                pulsarClient.close();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (PulsarClientException e) {
+            LOG.error("Error closing click ingestion consumer", e);
+        }
+    }
+
+    private void run() {
+        if (!subscribe()) {
+            return;
+        }
+        while (running) {
+            Messages<byte[]> messages;
+            try {
+                messages = consumer.batchReceive();
+            } catch (PulsarClientException e) {
+                if (running) {
+                    LOG.errorf("Click event receive failed: %s", e.getMessage());
+                    pause();
+                }
+                continue;
+            }
+
+            if (messages.size() > 0 && !ingest(messages)) {
+                pause();
+            }
+            topValuesTracker.checkpointIfDue();
+        }
+    }
+
+    /**
+     * COPY one batch, then ack it and count it in the top-values sketches;
+     * nack it for redelivery if the COPY failed
+     *
+     * @return whether the batch was stored
+     */
+    boolean ingest(Messages<byte[]> messages) {
+        List<ClickEvent> events = new ArrayList<>(messages.size());
+        for (Message<byte[]> message : messages) {
+            ClickEvent event = decode(message);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            events = inPartitionRange(events);
+            if (!events.isEmpty()) {
+                clickRepository.ingest(events);
+            }
+            consumer.acknowledge(messages);
+            ingested.increment(events.size());
+            LOG.debugf("Ingested %d click events", events.size());
+        } catch (Exception e) {
+            // DB outage, partition detached meanwhile, ... - redelivered after the nack delay
+            failedBatches.increment();
+            consumer.negativeAcknowledge(messages);
+            LOG.errorf("Failed to ingest %d click events: %s", events.size(), e.getMessage());
+            refreshPartitionRange();
+            return false;
+        } finally {
+            sample.stop(batchTimer);
+        }
+
+        // Stored and acked: the sketches are approximate, so losing a batch here is acceptable
+        try {
+            topValuesTracker.record(events);
+        } catch (Exception e) {
+            LOG.warnf("Failed to update top values for %d click events: %s", events.size(), e.getMessage());
+        }
+        return true;
+    }
+
+    /**
+     * Drop (and count) events no attached partition would accept. With no
+     * partitions at all everything is kept, so the batch fails and is
+     * retried until maintenance has created them.
+     */
+    private List<ClickEvent> inPartitionRange(List<ClickEvent> events) throws SQLException {
+        UrlClickRepository.PartitionRange range = clickRepository.partitionRange();
+        if (range == null) {
+            return events;
+        }
+
+        List<ClickEvent> kept = new ArrayList<>(events.size());
+        for (ClickEvent event : events) {
+            if (range.contains(event.getTimestamp())) {
+                kept.add(event);
+            }
+        }
+        if (kept.size() < events.size()) {
+            outOfRange.increment(events.size() - kept.size());
+            LOG.warnf("Skipped %d click events outside the partitioned range [%s, %s)",
+                    events.size() - kept.size(), range.from(), range.to());
+        }
+        return kept;
+    }
+
+    private void refreshPartitionRange() {
+        try {
+            clickRepository.refreshPartitionRange();
+        } catch (SQLException e) {
+            LOG.debugf("Could not refresh click partition range: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * @return the event, or null if it cannot be stored (it is acked with the batch, never retried)
+     */
+    private ClickEvent decode(Message<byte[]> message) {
+        try {
+            ClickEvent event = ClickEventCodec.decode(message.getValue());
+            if (event.getUrlId() == null || event.getShortCode() == null || event.getShortCode().isEmpty()) {
+                malformed.increment();
+                return null;
+            }
+            if (event.getTimestamp() == null) {
+                event.setTimestamp(Instant.ofEpochMilli(message.getPublishTime()));
+            }
+            return event;
+        } catch (RuntimeException e) {
+            malformed.increment();
+            LOG.warnf("Skipping undecodable click event %s: %s", message.getMessageId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(appConfig.clickIngest().retryDelay().toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+}
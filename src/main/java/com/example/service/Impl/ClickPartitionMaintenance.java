@@ -0,0 +1,66 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.repository.UrlClickRepository;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+
+/**
+ * Keeps the monthly url_clicks partitions ahead of the clock and applies
+ * retention.
+ * <p>
+ * Creates partitions up to app.click-ingest.premake-months ahead, so the
+ * ingest COPY never hits a missing partition. Partitions older than
+ * app.click-ingest.retention-months are detached, which changes only the
+ * catalog however many rows they hold, and dropped if so configured.
+ * Every statement is idempotent, so pods can run this concurrently.
+ * Afterwards the ingestor's view of the partitioned range is refreshed, so
+ * it skips clicks that no partition would accept.
+ */
+@ApplicationScoped
+public class ClickPartitionMaintenance {
+
+    private static final Logger LOG = Logger.getLogger(ClickPartitionMaintenance.class);
+
+    @Inject
+    UrlClickRepository clickRepository;
+
+    @Inject
+    AppConfig appConfig;
+
+    void onStart(@Observes StartupEvent event) {
+        maintain();
+    }
+
+    @Scheduled(cron = "0 15 * * * ?", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void maintain() {
+        AppConfig.ClickIngestConfig config = appConfig.clickIngest();
+        YearMonth current = YearMonth.now(ZoneOffset.UTC);
+
+        try {
+            for (int i = 0; i <= config.premakeMonths(); i++) {
+                clickRepository.createMonthlyPartition(current.plusMonths(i));
+            }
+
+            YearMonth oldestKept = current.minusMonths(config.retentionMonths() - 1L);
+            for (String partition : clickRepository.listPartitions()) {
+                YearMonth month = UrlClickRepository.partitionMonth(partition);
+                if (month != null && month.isBefore(oldestKept)) {
+                    clickRepository.detachPartition(partition, config.dropDetached());
+                    LOG.infof("%s click partition %s (retention %d months)",
+                            config.dropDetached() ? "Dropped" : "Detached", partition, config.retentionMonths());
+                }
+            }
+            clickRepository.refreshPartitionRange();
+        } catch (Exception e) {
+            LOG.errorf("Click partition maintenance failed: %s", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.dto.ClickEvent;
+import com.example.dto.TopValuesDimension;
+import com.example.repository.ClickTopValuesRepository;
+import com.example.util.ClickDimensions;
+import com.example.util.SpaceSaving;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.sql.SQLException;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k sketches of referers and user agents per link, fed by
+ * {@link ClickIngestor} after each stored batch and merged into
+ * click_top_values every app.top-values.checkpoint-interval.
+ * <p>
+ * Memory holds only what this pod counted since its last checkpoint. A
+ * link's sketches start empty here and are merged into the stored ones
+ * under a row lock, so the Shared ingest subscription may spread a link's
+ * clicks over any number of pods. A successful checkpoint empties memory
+ * again. Memory is bounded by max-links x 2 x capacity values: past that,
+ * the least recently clicked links are merged and evicted as soon as a
+ * batch brings in new ones. When that merge or a periodic checkpoint
+ * fails, the links beyond max-links lose their counts since the last
+ * checkpoint rather than being held in memory; the rest are retried.
+ * <p>
+ * Not thread-safe: only the click-ingest thread calls it (and shutdown,
+ * after that thread has stopped).
+ */
+@ApplicationScoped
+public class ClickTopValuesTracker {
+
+    private static final Logger LOG = Logger.getLogger(ClickTopValuesTracker.class);
+
+    @Inject
+    ClickTopValuesRepository topValuesRepository;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    /**
+     * A link's sketches of the clicks since the last checkpoint
+     */
+    private static final class Sketches {
+        final SpaceSaving referers;
+        final SpaceSaving userAgents;
+
+        Sketches(int capacity) {
+            this.referers = new SpaceSaving(capacity);
+            this.userAgents = new SpaceSaving(capacity);
+        }
+    }
+
+    // Access order: the eldest entry is the least recently clicked link
+    private final LinkedHashMap<Long, Sketches> sketches = new LinkedHashMap<>(256, 0.75f, true);
+    private long lastCheckpointNanos = System.nanoTime();
+
+    private Timer checkpointTimer;
+
+    @PostConstruct
+    void init() {
+        checkpointTimer = meterRegistry.timer("url.top-values.checkpoint");
+        meterRegistry.gaugeMapSize("url.top-values.links", List.of(), sketches);
+    }
+
+    /**
+     * Count a stored batch of events
+     */
+    public void record(List<ClickEvent> events) {
+        AppConfig.TopValuesConfig config = appConfig.topValues();
+        if (!config.enabled() || events.isEmpty()) {
+            return;
+        }
+
+        int capacity = config.capacity();
+        int maxLength = config.maxValueLength();
+        for (ClickEvent event : events) {
+            Sketches link = sketches.computeIfAbsent(event.getUrlId(), urlId -> new Sketches(capacity));
+            link.referers.offer(value(event.getReferer(), ClickDimensions.DIRECT, maxLength));
+            link.userAgents.offer(value(event.getUserAgent(), ClickDimensions.UNKNOWN, maxLength));
+        }
+        evict(config.maxLinks(), true);
+    }
+
+    public void checkpointIfDue() {
+        if (System.nanoTime() - lastCheckpointNanos >= appConfig.topValues().checkpointInterval().toNanos()) {
+            checkpoint();
+        }
+    }
+
+    /**
+     * Merge every link's sketches into the stored ones and start over
+     */
+    public void checkpoint() {
+        lastCheckpointNanos = System.nanoTime();
+        if (sketches.isEmpty()) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<ClickTopValuesRepository.Snapshot> deltas = new ArrayList<>(sketches.size() * 2);
+        sketches.forEach((urlId, link) -> addSnapshots(deltas, urlId, link, now));
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            topValuesRepository.mergeAll(deltas);
+        } catch (SQLException e) {
+            // Kept for the next checkpoint, but only within max-links
+            LOG.errorf("Failed to checkpoint top values of %d links: %s", sketches.size(), e.getMessage());
+            evict(appConfig.topValues().maxLinks(), false);
+            return;
+        } finally {
+            sample.stop(checkpointTimer);
+        }
+
+        LOG.debugf("Checkpointed top values of %d links", sketches.size());
+        sketches.clear();
+    }
+
+    /**
+     * Evict the least recently clicked links beyond maxLinks, merging their
+     * sketches into the stored ones first if merge is set
+     */
+    private void evict(int maxLinks, boolean merge) {
+        int excess = sketches.size() - maxLinks;
+        if (excess <= 0) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        List<ClickTopValuesRepository.Snapshot> evicted = new ArrayList<>(excess * 2);
+        Iterator<Map.Entry<Long, Sketches>> eldest = sketches.entrySet().iterator();
+        for (; excess > 0; excess--) {
+            Map.Entry<Long, Sketches> entry = eldest.next();
+            addSnapshots(evicted, entry.getKey(), entry.getValue(), now);
+            eldest.remove();
+        }
+
+        if (merge) {
+            Timer.Sample sample = Timer.start(meterRegistry);
+            try {
+                topValuesRepository.mergeAll(evicted);
+                return;
+            } catch (SQLException e) {
+                LOG.errorf("Failed to checkpoint top values of %d evicted links: %s", evicted.size() / 2, e.getMessage());
+            } finally {
+                sample.stop(checkpointTimer);
+            }
+        }
+        LOG.warnf("Dropped unsaved top values of %d links over max-links", evicted.size() / 2);
+    }
+
+    private static void addSnapshots(List<ClickTopValuesRepository.Snapshot> snapshots, long urlId,
+                                     Sketches link, Instant now) {
+        snapshots.add(snapshot(urlId, TopValuesDimension.REFERER, link.referers, now));
+        snapshots.add(snapshot(urlId, TopValuesDimension.USER_AGENT, link.userAgents, now));
+    }
+
+    private static ClickTopValuesRepository.Snapshot snapshot(long urlId, TopValuesDimension dimension,
+                                                              SpaceSaving sketch, Instant now) {
+        return new ClickTopValuesRepository.Snapshot(
+                urlId, dimension, sketch.capacity(), sketch.total(), sketch.entries(), now);
+    }
+
+    private static String value(String raw, String missing, int maxLength) {
+        if (raw == null || raw.isEmpty()) {
+            return missing;
+        }
+        return raw.length() > maxLength ? raw.substring(0, maxLength) : raw;
+    }
+}
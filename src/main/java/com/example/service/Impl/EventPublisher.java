@@ -1,8 +1,13 @@
 package com.example.service.Impl;
 
+import com.example.config.AppConfig;
 import com.example.domain.Url;
+import com.example.dto.CachePurgeEvent;
 import com.example.dto.ClickEvent;
 import com.example.service.IEventPublisher;
+import com.example.util.ClickEventCodec;
+import com.example.util.SurrogateKeys;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
@@ -15,6 +20,8 @@ import org.apache.pulsar.client.api.Schema;
 import org.eclipse.microprofile.config.inject.ConfigProperty;
 import org.jboss.logging.Logger;
 
+import java.time.Instant;
+import java.util.Set;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.TimeUnit;
 
@@ -30,7 +37,11 @@ public class EventPublisher implements IEventPublisher {
     String topic;
 
     private PulsarClient pulsarClient;
-    private Producer<String> producer;
+    private Producer<byte[]> producer;
+    private Producer<String> purgeProducer;
+
+    @Inject
+    AppConfig appConfig;
 
     @Inject
     ObjectMapper objectMapper;
@@ -44,13 +55,27 @@ public class EventPublisher implements IEventPublisher {
                     .serviceUrl(pulsarUrl)
                     .build();
 
-            producer = pulsarClient.newProducer(Schema.STRING)
+            AppConfig.PulsarConfig config = appConfig.pulsar();
+            producer = pulsarClient.newProducer(Schema.BYTES)
                     .topic(topic)
                     .producerName("url-service-producer")
                     .sendTimeout(5, TimeUnit.SECONDS)
+                    // Batch + compress: click events are tiny and arrive at high rates
+                    .enableBatching(true)
+                    .batchingMaxPublishDelay(config.batchingMaxDelay().toMillis(), TimeUnit.MILLISECONDS)
+                    .batchingMaxMessages(config.batchingMaxMessages())
+                    .batchingMaxBytes(config.batchingMaxBytes())
+                    .compressionType(config.compression())
                     .create();
 
-            LOG.info("Pulsar producer initialized successfully");
+            LOG.infof("Pulsar producer initialized successfully (compression: %s, batch delay: %s)",
+                    config.compression(), config.batchingMaxDelay());
+
+            purgeProducer = pulsarClient.newProducer(Schema.STRING)
+                    .topic(config.purgeTopic())
+                    .producerName("url-service-purge-producer")
+                    .sendTimeout(5, TimeUnit.SECONDS)
+                    .create();
         } catch (PulsarClientException e) {
             LOG.error("Failed to initialize Pulsar client", e);
         }
@@ -62,6 +87,9 @@ public class EventPublisher implements IEventPublisher {
             if (producer != null) {
                 producer.close();
             }
+            if (purgeProducer != null) {
+                purgeProducer.close();
+            }
             if (pulsarClient != null) {
                 pulsarClient.close();
             }
@@ -71,32 +99,43 @@ public class EventPublisher implements IEventPublisher {
         }
     }
 
-    public void publishClickEvent(ClickEvent event) {
+    /**
+     * Send a click event to Pulsar
+     *
+     * @return future completed when the broker acknowledges the event, or
+     * failed if it was not sent; failures are left to the caller to count
+     * (logged at debug only) and never thrown on the caller's thread
+     */
+    public CompletableFuture<Void> publishClickEvent(ClickEvent event) {
         if (producer == null) {
-            LOG.warn("Pulsar producer not initialized, skipping event");
-            return;
+            return CompletableFuture.failedFuture(new IllegalStateException("Pulsar producer not initialized"));
         }
 
         try {
-            String json = objectMapper.writeValueAsString(event);
-            producer.sendAsync(json)
+            byte[] payload = ClickEventCodec.encode(event);
+            return producer.newMessage()
+                    .key(event.getShortCode())
+                    .value(payload)
+                    .sendAsync()
                     .thenAccept(msgId ->
                             LOG.debugf("Published click event: %s (msgId: %s)",
                                     event.getShortCode(), msgId))
-                    .exceptionally(ex -> {
-                        LOG.errorf("Failed to publish click event for %s: %s",
-                                event.getShortCode(), ex.getMessage());
-                        return null;
+                    .whenComplete((ignored, ex) -> {
+                        if (ex != null) {
+                            LOG.debugf("Failed to publish click event for %s: %s",
+                                    event.getShortCode(), ex.getMessage());
+                        }
                     });
         } catch (Exception e) {
-            LOG.errorf("Error serializing click event for %s: %s",
+            LOG.debugf("Error serializing click event for %s: %s",
                     event.getShortCode(), e.getMessage());
             // Don't throw - analytics failure shouldn't block redirect
+            return CompletableFuture.failedFuture(e);
         }
     }
 
     public CompletableFuture<Void> publishClickEventAsync(ClickEvent event) {
-        return CompletableFuture.runAsync(() -> publishClickEvent(event));
+        return publishClickEvent(event);
     }
 
     public boolean isConnected() {
@@ -115,11 +154,41 @@ public class EventPublisher implements IEventPublisher {
 
     @Override
     public void publishUrlUpdated(Url url) {
-
+        publishCachePurge(url.shortCode, SurrogateKeys.forLink(url.shortCode, url.surrogateKey));
     }
 
     @Override
     public void publishUrlDeleted(String shortCode, String userId) {
+        publishCachePurge(shortCode, SurrogateKeys.forLink(shortCode, null));
+    }
 
+    @Override
+    public void publishCachePurge(String shortCode, Set<String> surrogateKeys) {
+        if (purgeProducer == null) {
+            LOG.warnf("Pulsar purge producer not initialized, edge cache not purged for %s", shortCode);
+            return;
+        }
+
+        CachePurgeEvent event = CachePurgeEvent.builder()
+                .shortCode(shortCode)
+                .surrogateKeys(surrogateKeys)
+                .timestamp(Instant.now())
+                .build();
+
+        try {
+            purgeProducer.newMessage()
+                    .key(shortCode)
+                    .value(objectMapper.writeValueAsString(event))
+                    .sendAsync()
+                    .whenComplete((msgId, ex) -> {
+                        if (ex != null) {
+                            LOG.errorf("Failed to publish cache purge for %s: %s", shortCode, ex.getMessage());
+                        } else {
+                            LOG.debugf("Published cache purge: %s %s", shortCode, surrogateKeys);
+                        }
+                    });
+        } catch (JsonProcessingException e) {
+            LOG.errorf("Error serializing cache purge for %s: %s", shortCode, e.getMessage());
+        }
     }
 }
\ No newline at end of file
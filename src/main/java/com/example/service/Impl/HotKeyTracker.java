@@ -0,0 +1,123 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.util.HeavyHitters;
+import io.quarkus.scheduler.Scheduled;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Finds the short codes taking most of the redirect traffic right now and
+ * pins them in {@link UrlNearCache}.
+ * <p>
+ * Every lookup is counted in a decaying heavy-hitters sketch. Tracked codes
+ * whose count reaches app.hot-keys.min-hits are re-read from Valkey on a short
+ * interval and pinned locally, so one campaign link no longer concentrates
+ * load on a single Valkey shard. Codes that cool down are unpinned.
+ */
+@ApplicationScoped
+public class HotKeyTracker {
+
+    private static final Logger LOG = Logger.getLogger(HotKeyTracker.class);
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    CacheService cacheService;
+
+    @Inject
+    UrlNearCache nearCache;
+
+    private HeavyHitters sketch;
+    private boolean enabled;
+
+    /**
+     * A tracked code and its decayed request count
+     */
+    public record HotKey(String shortCode, long estimatedHits, boolean pinned) {
+    }
+
+    @PostConstruct
+    void init() {
+        AppConfig.HotKeysConfig config = appConfig.hotKeys();
+        enabled = config.enabled();
+        sketch = new HeavyHitters(config.topK(), config.sketchWidth(), config.sketchDepth());
+    }
+
+    /**
+     * Count one lookup (hot path - lock-free in the common case)
+     */
+    public void record(String shortCode) {
+        if (enabled) {
+            sketch.add(shortCode);
+        }
+    }
+
+    /**
+     * Tracked codes, hottest first
+     */
+    public List<HotKey> hotKeys() {
+        Set<String> pinned = nearCache.pinnedCodes();
+        List<HotKey> result = new ArrayList<>();
+        for (Map.Entry<String, Long> entry : sketch.top()) {
+            result.add(new HotKey(entry.getKey(), entry.getValue(), pinned.contains(entry.getKey())));
+        }
+        return result;
+    }
+
+    @Scheduled(every = "${app.hot-keys.decay-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void decay() {
+        if (enabled) {
+            sketch.decay();
+        }
+    }
+
+    /**
+     * Pin codes that are hot, re-read pinned codes from Valkey, unpin the rest
+     */
+    @Scheduled(every = "${app.hot-keys.refresh-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void refreshPinned() {
+        if (!enabled) {
+            return;
+        }
+
+        long minHits = appConfig.hotKeys().minHits();
+        Set<String> hot = new HashSet<>();
+        for (Map.Entry<String, Long> entry : sketch.top()) {
+            if (entry.getValue() >= minHits) {
+                hot.add(entry.getKey());
+            }
+        }
+
+        for (String code : nearCache.pinnedCodes()) {
+            if (!hot.contains(code)) {
+                nearCache.unpin(code);
+                LOG.debugf("Unpinned cooled-down code: %s", code);
+            }
+        }
+
+        for (String code : hot) {
+            cacheService.getResolution(code)
+                    .subscribe().with(
+                            resolution -> {
+                                if (resolution != null) {
+                                    nearCache.pin(resolution);
+                                } else {
+                                    // Not in Valkey (expired or evicted) - the next request reloads it
+                                    nearCache.unpin(code);
+                                }
+                            },
+                            failure -> LOG.debugf("Failed to refresh pinned code %s: %s", code, failure.getMessage())
+                    );
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.mindrot.jbcrypt.BCrypt;
+
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs BCrypt checks for password-protected links on a small dedicated pool.
+ * <p>
+ * Each check burns ~100ms of CPU, so they are kept off the event loop and
+ * off the shared worker pool. When the pool and its queue are full, further
+ * checks are rejected with 429 instead of piling up behind each other.
+ */
+@ApplicationScoped
+public class PasswordVerifier {
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ThreadPoolExecutor executor;
+    private Counter rejected;
+    private Timer checkTimer;
+
+    @PostConstruct
+    void init() {
+        AppConfig.BcryptConfig config = appConfig.bcrypt();
+        AtomicInteger threadCount = new AtomicInteger();
+
+        executor = new ThreadPoolExecutor(
+                config.poolSize(), config.poolSize(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.queueCapacity()),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "bcrypt-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+
+        rejected = meterRegistry.counter("url.bcrypt.rejected");
+        checkTimer = meterRegistry.timer("url.bcrypt.check");
+        meterRegistry.gauge("url.bcrypt.queue.depth", List.of(), executor, pool -> pool.getQueue().size());
+        meterRegistry.gauge("url.bcrypt.active", List.of(), executor, ThreadPoolExecutor::getActiveCount);
+    }
+
+    @PreDestroy
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * @return whether the password matches; fails with TooManyRequestsException when saturated
+     */
+    public Uni<Boolean> matches(String password, String passwordHash) {
+        return Uni.createFrom().emitter(emitter -> {
+            try {
+                executor.execute(() -> {
+                    try {
+                        emitter.complete(checkTimer.record(() -> BCrypt.checkpw(password, passwordHash)));
+                    } catch (RuntimeException e) {
+                        emitter.fail(e);
+                    }
+                });
+            } catch (RejectedExecutionException e) {
+                rejected.increment();
+                emitter.fail(new TooManyRequestsException("Too many password checks in progress, try again shortly"));
+            }
+        });
+    }
+}
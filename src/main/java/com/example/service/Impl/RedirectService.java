@@ -1,176 +1,318 @@
 package com.example.service.Impl;
 
-import com.example.domain.Url;
+import com.example.config.AppConfig;
+import com.example.domain.UrlResolution;
 import com.example.dto.ClickEvent;
+import com.example.dto.RedirectTarget;
 import com.example.exception.InvalidPasswordException;
 import com.example.exception.PasswordRequiredException;
 import com.example.exception.UrlExpiredException;
 import com.example.exception.UrlNotFoundException;
+import com.example.repository.UrlReactiveRepository;
 import com.example.repository.UrlRepository;
+import com.example.service.IRedirectService;
+import com.example.util.SingleFlight;
+import com.example.util.SurrogateKeys;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.smallrye.mutiny.Uni;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
-import jakarta.transaction.Transactional;
 import org.jboss.logging.Logger;
-import org.mindrot.jbcrypt.BCrypt;
 
 import java.time.Duration;
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
 
 @ApplicationScoped
-public class RedirectService {
+public class RedirectService implements IRedirectService {
 
     private static final Logger LOG = Logger.getLogger(RedirectService.class);
-    private static final Duration CACHE_TTL = Duration.ofHours(1);
+    private static final String NO_CACHE = "no-cache, no-store, must-revalidate";
 
     @Inject
     UrlRepository urlRepository;
 
+    @Inject
+    UrlReactiveRepository urlReactiveRepository;
+
     @Inject
     CacheService cacheService;
 
     @Inject
-    EventPublisher eventPublisher;
+    UrlNearCache nearCache;
+
+    @Inject
+    ShortCodeFilter shortCodeFilter;
+
+    @Inject
+    HotKeyTracker hotKeyTracker;
+
+    @Inject
+    PasswordVerifier passwordVerifier;
+
+    @Inject
+    UnlockTokenService unlockTokenService;
+
+    @Inject
+    ClickEventQueue clickEventQueue;
+
+    @Inject
+    ClickCounterBuffer clickCounterBuffer;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    AppConfig appConfig;
+
+    private final SingleFlight<String, UrlResolution> loads = new SingleFlight<>();
+
+    private Counter earlyRefreshes;
+    private Counter staleServed;
+
+    @PostConstruct
+    void init() {
+        FunctionCounter.builder("url.lookups.coalesced", loads, SingleFlight::coalescedCount)
+                .description("Cache misses served by another request's in-flight database load")
+                .register(meterRegistry);
+        meterRegistry.gauge("url.lookups.in-flight", List.of(), loads, SingleFlight::inFlightCount);
+        earlyRefreshes = meterRegistry.counter("url.cache.refresh-ahead");
+        staleServed = meterRegistry.counter("url.cache.stale-served");
+    }
 
     /**
      * Resolve short code to original URL (HOT PATH - PERFORMANCE CRITICAL!)
      * <p>
+     * Runs on the event loop end to end; only BCrypt is shifted to a dedicated pool,
+     * and repeat visits to protected links skip it with an unlock token.
+     * <p>
      * Flow:
-     * 1. Check Valkey cache (< 5ms)
-     * 2. If miss → query database (10-50ms)
-     * 3. Validate (expiration, password, active)
-     * 4. Cache result for future requests
-     * 5. Increment counter (async)
-     * 6. Publish analytics event (async)
-     * 7. Return original URL
+     * 0. Check in-process near-cache (no network; hot codes are pinned there)
+     * 1. Check Valkey cache (< 5ms, reactive)
+     * 2. If miss → Bloom filter / negative cache, then query database (reactive PG client),
+     *    coalescing concurrent misses for the same code into one query
+     * 3. Validate (expiration, password, active) - also on cache hits
+     * 4. Cache resolution record for future requests (on miss). Hot entries are
+     *    refreshed in the background shortly before they go stale; stale entries
+     *    are still served while the database is failing or slow
+     * 5. Increment counter, record the visitor (buffered locally, flushed in batches)
+     * 6. Publish analytics event (bounded queue, drops instead of blocking)
+     * 7. Return original URL (plus a fresh unlock token after a password check)
      */
-    public String resolveShortCode(String shortCode, String password,
-                                   String ipAddress, String userAgent, String referer) {
+    @Override
+    public Uni<RedirectTarget> resolveShortCode(String shortCode, String password, String unlockToken,
+                                                String ipAddress, String userAgent, String referer, String country) {
         LOG.debugf("Resolving short code: %s", shortCode);
+        hotKeyTracker.record(shortCode);
 
-        // STEP 1: Check cache (HOT PATH - most requests end here!)
-        Optional<String> cachedUrl = cacheService.get(CacheService.urlCacheKey(shortCode));
+        // STEP 0: Check near-cache (HOT PATH - most requests end here!)
+        Optional<UrlResolution> nearCached = nearCache.get(shortCode);
 
-        if (cachedUrl.isPresent()) {
-            LOG.debugf("Cache HIT for: %s", shortCode);
+        if (nearCached.isPresent()) {
+            return revalidate(nearCached.get())
+                    .onItem().transformToUni(resolution -> validate(resolution, password, unlockToken)
+                            .onItem().transform(target -> onResolved(resolution, target, ipAddress, userAgent, referer, country)));
+        }
 
-            // Async operations (don't block redirect!)
-            incrementClickCounterAsync(shortCode);
-            publishClickEventAsync(shortCode, null, ipAddress, userAgent, referer);
+        // STEP 1: Check Valkey cache
+        return cacheService.getResolution(shortCode)
+                .onFailure().recoverWithNull()
+                .onItem().transformToUni(cached -> {
+                    if (cached != null) {
+                        nearCache.put(cached);
+                        return revalidate(cached);
+                    }
+
+                    // STEP 2: Cache miss - query database (one loader per code per pod)
+                    LOG.debugf("Cache MISS for: %s, querying database", shortCode);
+                    return loads.load(shortCode, () -> loadFromDatabase(shortCode));
+                })
+                // STEP 3: Validate URL (hits and misses alike)
+                .onItem().transformToUni(resolution -> validate(resolution, password, unlockToken)
+                        .onItem().transform(target -> onResolved(resolution, target, ipAddress, userAgent, referer, country)));
+    }
 
-            return cachedUrl.get();
+    /**
+     * Cached entries carry their own load time: past url-ttl they are reloaded
+     * (falling back to the stale entry if the database fails or is slow), and
+     * shortly before that a request may refresh them in the background.
+     */
+    private Uni<UrlResolution> revalidate(UrlResolution cached) {
+        AppConfig.CacheConfig config = appConfig.cache();
+        long now = System.currentTimeMillis();
+        long freshUntil = cached.loadedAtMillis() + config.urlTtl() * 1000L;
+        String shortCode = cached.shortCode();
+
+        if (now >= freshUntil) {
+            return loads.load(shortCode, () -> loadFromDatabase(shortCode))
+                    .ifNoItem().after(config.staleLoadTimeout()).fail()
+                    .onFailure(failure -> !(failure instanceof UrlNotFoundException)).recoverWithItem(failure -> {
+                        staleServed.increment();
+                        LOG.warnf("Serving stale entry for %s (loaded %d s ago): %s",
+                                shortCode, (now - cached.loadedAtMillis()) / 1000, failure.toString());
+                        return cached;
+                    });
         }
 
-        // STEP 2: Cache miss - query database
-        LOG.debugf("Cache MISS for: %s, querying database", shortCode);
-
-        Url url = urlRepository.findByShortCode(shortCode)
-                .orElseThrow(() -> new UrlNotFoundException("Short URL not found: " + shortCode));
+        if (shouldRefreshEarly(cached, now, freshUntil, config.refreshAheadBeta())) {
+            earlyRefreshes.increment();
+            loads.load(shortCode, () -> loadFromDatabase(shortCode))
+                    .subscribe().with(
+                            ignored -> LOG.debugf("Refreshed ahead of expiry: %s", shortCode),
+                            failure -> LOG.debugf("Refresh-ahead failed for %s: %s", shortCode, failure.getMessage())
+                    );
+        }
+        return Uni.createFrom().item(cached);
+    }
 
-        if (!url.isActive) {
-            throw new UrlNotFoundException("This link has been disabled");
+    /**
+     * XFetch (probabilistic early expiration): refresh when
+     * {@code now - loadMillis * beta * ln(rand) >= freshUntil}. Entries that are
+     * slow to load, or requested often, get refreshed earlier, and concurrent
+     * requests (and pods) spread their refreshes out instead of all missing at
+     * the same instant.
+     */
+    static boolean shouldRefreshEarly(UrlResolution cached, long now, long freshUntil, double beta) {
+        if (beta <= 0) {
+            return false;
         }
+        // Unknown load times still get a small head start
+        long delta = Math.max(cached.loadMillis(), 1);
+        double gap = -delta * beta * Math.log(1.0 - ThreadLocalRandom.current().nextDouble());
+        return now + gap >= freshUntil;
+    }
 
-        if (url.isExpired()) {
-            throw new UrlExpiredException("This link has expired");
+    private Uni<UrlResolution> loadFromDatabase(String shortCode) {
+        // Scanners probing random codes are answered without touching the database
+        if (shortCodeFilter.isDefinitelyMissing(shortCode)) {
+            return Uni.createFrom().failure(new UrlNotFoundException("Short URL not found: " + shortCode));
         }
 
-        if (url.hasPassword()) {
-            if (password == null || password.isEmpty()) {
-                throw new PasswordRequiredException("Password required");
-            }
+        long startMillis = System.currentTimeMillis();
+        AppConfig.CacheConfig config = appConfig.cache();
+
+        return urlReactiveRepository.findByShortCode(shortCode)
+                .onItem().ifNull().failWith(() -> {
+                    shortCodeFilter.recordMissing(shortCode);
+                    return new UrlNotFoundException("Short URL not found: " + shortCode);
+                })
+                .onItem().transform(url -> {
+                    long loadedAt = System.currentTimeMillis();
+                    return UrlResolution.from(url, loadedAt, (int) (loadedAt - startMillis));
+                })
+                // STEP 4: Cache for future requests (a cache failure must not fail the redirect).
+                // Disabled/expired links are cached too, so they are rejected without the DB.
+                // Valkey keeps the entry past url-ttl so it can still be served if the DB fails.
+                .onItem().transformToUni(resolution ->
+                        cacheService.cacheResolution(resolution, config.urlTtl() + config.staleIfError())
+                                .onFailure().recoverWithNull()
+                                .replaceWith(resolution))
+                .invoke(resolution -> {
+                    nearCache.put(resolution);
+                    updateLastAccessedAsync(resolution.id());
+                    LOG.debugf("Resolved: %s -> %s", shortCode, resolution.originalUrl());
+                });
+    }
 
-            if (!BCrypt.checkpw(password, url.passwordHash)) {
-                throw new InvalidPasswordException("Incorrect password");
-            }
-        }
-        // STEP 3: Validate URL
-        validateUrl(url, password);
+    /**
+     * STEP 5/6: counters and analytics for a successfully validated redirect
+     */
+    private RedirectTarget onResolved(UrlResolution resolution, RedirectTarget target,
+                                      String ipAddress, String userAgent, String referer, String country) {
+        clickCounterBuffer.increment(resolution.shortCode());
+        clickCounterBuffer.recordVisitor(resolution.shortCode(), ipAddress, userAgent);
+        publishClickEvent(resolution.shortCode(), resolution.id(), ipAddress, userAgent, referer, country);
+        return target;
+    }
 
-        // STEP 4: Cache for future requests
-        cacheService.set(
-                CacheService.urlCacheKey(shortCode),
-                url.originalUrl,
-                CACHE_TTL
-        );
+    /**
+     * Validate on the calling thread. Protected links accept a valid unlock
+     * token; otherwise the password goes through BCrypt on its own bounded
+     * pool (CPU heavy, must never run on the event loop) and a new token is issued.
+     */
+    private Uni<RedirectTarget> validate(UrlResolution resolution, String password, String unlockToken) {
+        validateUrl(resolution);
 
-        // STEP 5: Async operations
-        incrementClickCounterAsync(shortCode);
-        publishClickEventAsync(shortCode, url.id, ipAddress, userAgent, referer);
-        updateLastAccessedAsync(url.id);
+        if (!resolution.hasPassword() || unlockTokenService.verify(unlockToken, resolution)) {
+            return Uni.createFrom().item(target(resolution, null));
+        }
 
-        LOG.infof("Resolved: %s -> %s", shortCode, url.originalUrl);
+        if (password == null || password.isEmpty()) {
+            return Uni.createFrom().failure(new PasswordRequiredException("Password required to access this link"));
+        }
 
-        return url.originalUrl;
+        return passwordVerifier.matches(password, resolution.passwordHash())
+                .onItem().transform(matches -> {
+                    if (!matches) {
+                        LOG.warnf("Invalid password for: %s", resolution.shortCode());
+                        throw new InvalidPasswordException("Incorrect password");
+                    }
+                    return target(resolution, unlockTokenService.issue(resolution));
+                });
     }
 
     /**
-     * Validate URL (active, not expired, password check)
+     * Apply the link's redirect policy. Only public links are ever cacheable
+     * downstream, and never past their own expiry.
      */
-    private void validateUrl(Url url, String password) {
+    private RedirectTarget target(UrlResolution resolution, String unlockToken) {
+        RedirectTarget.RedirectTargetBuilder target = RedirectTarget.builder()
+                .originalUrl(resolution.originalUrl())
+                .status(resolution.redirectStatus())
+                .unlockToken(unlockToken)
+                .cacheControl(NO_CACHE);
+
+        long maxAge = resolution.hasPassword() ? 0 : resolution.redirectMaxAge();
+        if (maxAge > 0 && resolution.expiresAt() != null) {
+            maxAge = Math.min(maxAge, Duration.between(Instant.now(), resolution.expiresAt()).getSeconds());
+        }
+        if (maxAge > 0) {
+            target.cacheControl("public, max-age=" + maxAge)
+                    .surrogateKey(SurrogateKeys.header(resolution.shortCode(), resolution.surrogateKey()));
+        }
+        return target.build();
+    }
+
+    /**
+     * Validate URL (active, not expired)
+     */
+    private void validateUrl(UrlResolution resolution) {
         // Check if active
-        if (!url.isActive) {
-            LOG.warnf("Inactive URL accessed: %s", url.shortCode);
+        if (!resolution.active()) {
+            LOG.warnf("Inactive URL accessed: %s", resolution.shortCode());
             throw new UrlNotFoundException("This link has been disabled");
         }
 
         // Check expiration
-        if (url.isExpired()) {
+        if (resolution.isExpired()) {
             LOG.warnf("Expired URL accessed: %s (expired at: %s)",
-                    url.shortCode, url.expiresAt);
+                    resolution.shortCode(), resolution.expiresAt());
             throw new UrlExpiredException("This link has expired");
         }
-
-        // Check password protection
-        if (url.hasPassword()) {
-            if (password == null || password.isEmpty()) {
-                throw new PasswordRequiredException("Password required to access this link");
-            }
-
-            if (!BCrypt.checkpw(password, url.passwordHash)) {
-                LOG.warnf("Invalid password for: %s", url.shortCode);
-                throw new InvalidPasswordException("Incorrect password");
-            }
-        }
-    }
-
-    /**
-     * Increment click counter in Valkey (async, non-blocking)
-     */
-    private void incrementClickCounterAsync(String shortCode) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                cacheService.increment(CacheService.clickCounterKey(shortCode));
-            } catch (Exception e) {
-                LOG.errorf("Failed to increment counter for %s: %s",
-                        shortCode, e.getMessage());
-            }
-        });
     }
 
     /**
-     * Publish click event to Pulsar (async, fire-and-forget)
+     * Hand click event to the bounded publisher queue (never blocks)
      */
-    private void publishClickEventAsync(String shortCode, Long urlId,
-                                        String ip, String userAgent, String referer) {
-        CompletableFuture.runAsync(() -> {
-            try {
-                ClickEvent event = ClickEvent.builder()
-                        .shortCode(shortCode)
-                        .urlId(urlId)
-                        .ipAddress(ip)
-                        .userAgent(userAgent)
-                        .referer(referer)
-                        .timestamp(Instant.now())
-                        .build();
-
-                eventPublisher.publishClickEvent(event);
-            } catch (Exception e) {
-                LOG.errorf("Failed to publish click event for %s: %s",
-                        shortCode, e.getMessage());
-            }
-        });
+    private void publishClickEvent(String shortCode, Long urlId,
+                                   String ip, String userAgent, String referer, String country) {
+        ClickEvent event = ClickEvent.builder()
+                .shortCode(shortCode)
+                .urlId(urlId)
+                .ipAddress(ip)
+                .userAgent(userAgent)
+                .referer(referer)
+                .country(country)
+                .timestamp(Instant.now())
+                .build();
+
+        clickEventQueue.offer(event);
     }
 
     /**
@@ -186,18 +328,4 @@ public class RedirectService {
             }
         });
     }
-
-    /**
-     * Background job: Sync click counters from Valkey to PostgreSQL
-     * <p>
-     * Runs every 1 minute
-     */
-    // TODO: Add @Scheduled annotation in next step
-    @Transactional
-    public void syncClickCounters() {
-        LOG.info("Syncing click counters from Valkey to PostgreSQL");
-
-        // This will be implemented when we add scheduled jobs
-        // For now, counters stay in Valkey
-    }
-}
\ No newline at end of file
+}
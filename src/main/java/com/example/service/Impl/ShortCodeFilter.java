@@ -0,0 +1,324 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.repository.UrlRepository;
+import com.example.util.BloomFilter;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.pubsub.ReactivePubSubCommands;
+import io.quarkus.runtime.StartupEvent;
+import io.quarkus.scheduler.Scheduled;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Fast "does this short code exist?" answers for the redirect miss path.
+ * <p>
+ * A Bloom filter of every existing short code (rebuilt from PostgreSQL at
+ * startup and every rebuild-interval) rejects random codes without a
+ * database query. Codes that pass the filter but are not in the database
+ * (false positives) land in a short-TTL negative cache.
+ * <p>
+ * New codes reach other pods through Valkey pub/sub, which is at-most-once,
+ * so correctness does not depend on it: every catch-up-interval the codes
+ * created since the last sync are read back from the database. A code
+ * whose message was lost is therefore rejected for at most one interval.
+ */
+@ApplicationScoped
+public class ShortCodeFilter {
+
+    private static final Logger LOG = Logger.getLogger(ShortCodeFilter.class);
+
+    @Inject
+    UrlRepository urlRepository;
+
+    @Inject
+    ReactiveRedisDataSource reactiveRedisDataSource;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
+    private volatile BloomFilter filter;
+    private volatile BloomFilter building;
+    private final AtomicLong insertions = new AtomicLong();
+    // Codes created before this instant (minus the overlap) are in the filter
+    private volatile Instant syncedAt;
+    private volatile long builtAtNanos;
+
+    private Cache<String, Boolean> negativeCache;
+    private ReactivePubSubCommands<String> pubSubCommands;
+
+    private Counter avoidedByFilter;
+    private Counter avoidedByNegativeCache;
+
+    @PostConstruct
+    void init() {
+        AppConfig.ShortCodeFilterConfig config = appConfig.shortCodeFilter();
+
+        negativeCache = Caffeine.newBuilder()
+                .maximumSize(config.negativeCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.negativeCacheTtl()))
+                .build();
+
+        pubSubCommands = reactiveRedisDataSource.pubsub(String.class);
+
+        avoidedByFilter = meterRegistry.counter("url.lookups.avoided", "reason", "bloom-filter");
+        avoidedByNegativeCache = meterRegistry.counter("url.lookups.avoided", "reason", "negative-cache");
+        meterRegistry.gauge("url.bloom-filter.bits", List.of(), this,
+                self -> self.filter != null ? self.filter.bitSize() : 0);
+        meterRegistry.gauge("url.bloom-filter.insertions", List.of(), insertions);
+        meterRegistry.gauge("url.bloom-filter.false-positive-rate", List.of(), this,
+                self -> self.filter != null ? self.filter.estimatedFalsePositiveRate() : 0);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        if (!appConfig.shortCodeFilter().enabled()) {
+            return;
+        }
+
+        // Subscribe before rebuilding so codes created meanwhile are not missed
+        String channel = appConfig.shortCodeFilter().channel();
+        pubSubCommands.subscribe(channel, this::addLocal)
+                .subscribe().with(
+                        subscriber -> LOG.infof("Short code filter subscribed to: %s", channel),
+                        failure -> LOG.errorf("Short code filter failed to subscribe to %s: %s",
+                                channel, failure.getMessage())
+                );
+
+        Infrastructure.getDefaultWorkerPool().execute(this::rebuild);
+    }
+
+    /**
+     * @return true only if the code certainly does not exist (no DB lookup needed)
+     */
+    public boolean isDefinitelyMissing(String shortCode) {
+        if (negativeCache.getIfPresent(shortCode) != null) {
+            avoidedByNegativeCache.increment();
+            return true;
+        }
+
+        BloomFilter current = filter;
+        if (current != null && !current.mightContain(shortCode)) {
+            avoidedByFilter.increment();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Filter-only check (no negative cache, no metrics): false means the code
+     * is certainly not taken; true if it may be, or the filter is not built yet
+     */
+    public boolean mightExist(String shortCode) {
+        BloomFilter current = filter;
+        return current == null || current.mightContain(shortCode);
+    }
+
+    /**
+     * Remember a code the database did not have
+     */
+    public void recordMissing(String shortCode) {
+        negativeCache.put(shortCode, Boolean.TRUE);
+    }
+
+    /**
+     * Register a code created in the current transaction once it commits.
+     * Publishing earlier could race a rebuild whose snapshot misses the row.
+     */
+    public void addAfterCommit(String shortCode) {
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            add(shortCode);
+            return;
+        }
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    add(shortCode);
+                }
+            }
+        });
+    }
+
+    /**
+     * {@link #addAfterCommit(String)} for many codes with one synchronization
+     */
+    public void addAllAfterCommit(Collection<String> shortCodes) {
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            shortCodes.forEach(this::add);
+            return;
+        }
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    shortCodes.forEach(ShortCodeFilter.this::add);
+                }
+            }
+        });
+    }
+
+    /**
+     * Register a newly created code on this pod and on every other pod
+     */
+    public void add(String shortCode) {
+        addLocal(shortCode);
+
+        pubSubCommands.publish(appConfig.shortCodeFilter().channel(), shortCode)
+                .subscribe().with(
+                        ignored -> LOG.debugf("Published new short code: %s", shortCode),
+                        failure -> LOG.errorf("Failed to publish new short code %s: %s",
+                                shortCode, failure.getMessage())
+                );
+    }
+
+    void addLocal(String shortCode) {
+        negativeCache.invalidate(shortCode);
+
+        BloomFilter current = filter;
+        if (current != null) {
+            current.put(shortCode);
+        }
+        BloomFilter next = building;
+        if (next != null) {
+            next.put(shortCode);
+        }
+        insertions.incrementAndGet();
+    }
+
+    /**
+     * Add the codes created since the last sync (or rebuild), whether or not
+     * their pub/sub message arrived
+     */
+    @Scheduled(every = "${app.short-code-filter.catch-up-interval}", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void catchUp() {
+        Instant since = syncedAt;
+        if (!appConfig.shortCodeFilter().enabled() || filter == null || since == null) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        try {
+            Instant from = since.minus(appConfig.shortCodeFilter().catchUpOverlap());
+            List<String> codes = QuarkusTransaction.requiringNew()
+                    .call(() -> urlRepository.findShortCodesCreatedSince(from));
+            syncCodes(codes, since, now);
+            LOG.debugf("Short code filter caught up %d codes created since %s", codes.size(), from);
+        } catch (Exception e) {
+            // syncedAt stays put, so the next run covers this window too
+            LOG.errorf("Short code filter catch-up failed: %s", e.getMessage());
+        }
+    }
+
+    /**
+     * Rebuild periodically, and sooner when the filter has drifted well past
+     * its target false-positive rate
+     */
+    @Scheduled(every = "10m", delayed = "10m", concurrentExecution = Scheduled.ConcurrentExecution.SKIP)
+    void scheduledRebuild() {
+        BloomFilter current = filter;
+        if (!appConfig.shortCodeFilter().enabled()) {
+            return;
+        }
+        if (current == null) {
+            LOG.info("Short code filter missing, rebuilding");
+            rebuild();
+            return;
+        }
+
+        double target = appConfig.shortCodeFilter().falsePositiveRate();
+        if (current.estimatedFalsePositiveRate() > target * 2) {
+            LOG.infof("Short code filter saturated (fpp %.4f > %.4f), rebuilding",
+                    current.estimatedFalsePositiveRate(), target);
+            rebuild();
+        } else if (System.nanoTime() - builtAtNanos >= appConfig.shortCodeFilter().rebuildInterval().toNanos()) {
+            LOG.info("Short code filter rebuild interval elapsed, rebuilding");
+            rebuild();
+        }
+    }
+
+    private synchronized void syncCodes(List<String> codes, Instant expectedSyncedAt, Instant readAt) {
+        // A rebuild that finished meanwhile already holds these codes and set its own sync point
+        if (syncedAt != expectedSyncedAt) {
+            return;
+        }
+        BloomFilter current = filter;
+        for (String code : codes) {
+            negativeCache.invalidate(code);
+            current.put(code);
+        }
+        syncedAt = readAt;
+    }
+
+    synchronized void rebuild() {
+        long startMillis = System.currentTimeMillis();
+        AppConfig.ShortCodeFilterConfig config = appConfig.shortCodeFilter();
+
+        try {
+            // Rows committed after this are picked up by the next catch-up
+            Instant snapshotAt = Instant.now();
+            long count = QuarkusTransaction.requiringNew().call(() -> urlRepository.count());
+            // Leave room for growth until the next rebuild
+            long expected = Math.max(config.minExpectedInsertions(), count * 2);
+            BloomFilter next = BloomFilter.create(expected, config.falsePositiveRate());
+            building = next;
+
+            AtomicLong loadedCounter = new AtomicLong();
+            QuarkusTransaction.requiringNew().run(() -> {
+                try (var codes = urlRepository.streamAllShortCodes()) {
+                    codes.forEach(code -> {
+                        next.put(code);
+                        loadedCounter.incrementAndGet();
+                    });
+                }
+            });
+            long loaded = loadedCounter.get();
+
+            filter = next;
+            building = null;
+            insertions.set(loaded);
+            syncedAt = snapshotAt;
+            builtAtNanos = System.nanoTime();
+
+            LOG.infof("Short code filter built: %d codes, %d bits, %d hashes, fpp %.4f in %d ms",
+                    loaded, next.bitSize(), next.hashFunctions(), next.estimatedFalsePositiveRate(),
+                    System.currentTimeMillis() - startMillis);
+        } catch (Exception e) {
+            building = null;
+            LOG.errorf("Failed to build short code filter, lookups stay unfiltered: %s", e.getMessage());
+        }
+    }
+}
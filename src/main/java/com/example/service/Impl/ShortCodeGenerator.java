@@ -1,51 +1,81 @@
 package com.example.service.Impl;
 
+import com.example.config.AppConfig;
 import com.example.repository.UrlRepository;
+import com.example.util.FeistelCodec;
+import com.example.util.UrlCanonicalizer;
+import jakarta.annotation.PostConstruct;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
 import org.jboss.logging.Logger;
 
-import java.security.SecureRandom;
-
+/**
+ * Allocates URL IDs and their short codes.
+ * <p>
+ * IDs come from this pod's {@link ShortCodePool}, which holds blocks leased
+ * from urls_id_seq. A generated code is the ID run through a keyed Feistel
+ * permutation and written in base62, so codes are unique without a lookup
+ * and look random.
+ */
 @ApplicationScoped
 public class ShortCodeGenerator {
 
     private static final Logger LOG = Logger.getLogger(ShortCodeGenerator.class);
 
-    private static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+    @Inject
+    UrlRepository urlRepository;
 
-    private static final int CODE_LENGTH = 6;
-    private static final int MAX_ATTEMPTS = 10;
-    private static final SecureRandom RANDOM = new SecureRandom();
+    @Inject
+    ShortCodeFilter shortCodeFilter;
 
     @Inject
-    UrlRepository urlRepository;
+    ShortCodePool codePool;
+
+    @Inject
+    AppConfig appConfig;
+
+    private FeistelCodec codec;
+
+    /**
+     * A freshly allocated ID and its generated short code
+     */
+    public record Allocation(long id, String shortCode) {
+    }
 
-    public String generate() {
-        StringBuilder code = new StringBuilder(CODE_LENGTH);
-        for (int i = 0; i < CODE_LENGTH; i++) {
-            code.append(BASE62.charAt(RANDOM.nextInt(BASE62.length())));
+    @PostConstruct
+    void init() {
+        AppConfig.ShortCodeConfig config = appConfig.shortCode();
+        if (config.permutationKey().isBlank()) {
+            throw new IllegalStateException("app.short-code.permutation-key is blank; set it in Vault");
         }
-        return code.toString();
+        codec = new FeistelCodec(config.permutationKey(), config.length());
+    }
+
+    /**
+     * Next reserved ID (for custom aliases, whose permuted code goes unused)
+     */
+    public long nextId() {
+        return codePool.take();
     }
 
-    public String generateUnique() {
-        String code;
-        int attempts = 0;
+    /**
+     * Allocate an ID and its generated code. Only codes a custom alias might
+     * already hold (per the Bloom filter) cost a database check.
+     */
+    public Allocation allocate() {
+        int maxAttempts = appConfig.shortCode().maxAttempts();
 
-        do {
-            code = generate();
-            attempts++;
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            long id = nextId();
+            String code = codec.encode(id);
 
-            if (attempts >= MAX_ATTEMPTS) {
-                LOG.warn("Reached max attempts for code generation, using longer code");
-                // Fallback: append extra character to reduce collision
-                return code + BASE62.charAt(RANDOM.nextInt(BASE62.length()));
+            if (!shortCodeFilter.mightExist(code) || !urlRepository.existsByShortCode(code)) {
+                return new Allocation(id, code);
             }
-        } while (urlRepository.existsByShortCode(code));
+            LOG.warnf("Generated code %s for ID %d is held by a custom alias, skipping", code, id);
+        }
 
-        LOG.debugf("Generated unique code: %s (attempts: %d)", code, attempts);
-        return code;
+        throw new IllegalStateException("Could not allocate a short code in " + maxAttempts + " attempts");
     }
 
    public boolean isValidCustomAlias(String alias) {
@@ -81,16 +111,17 @@ public class ShortCodeGenerator {
             return false;
         }
 
-        // Basic validation: starts with http:// or https://
-        if (!url.matches("^https?://.*")) {
-            return false;
-        }
-
         // Check length (max 2048 chars)
         if (url.length() > 2048) {
             return false;
         }
 
-        return true;
+        // Absolute http(s) URL with a host that parses per RFC 3986
+        try {
+            UrlCanonicalizer.canonicalize(url);
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,201 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.repository.UrlRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.quarkus.narayana.jta.QuarkusTransaction;
+import io.quarkus.redis.datasource.RedisDataSource;
+import io.quarkus.redis.datasource.list.ListCommands;
+import io.quarkus.runtime.ShutdownEvent;
+import io.quarkus.runtime.StartupEvent;
+import io.smallrye.mutiny.infrastructure.Infrastructure;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-pod pool of reserved URL IDs. A generated short code is a permutation
+ * of its ID, so reserving the ID reserves the code.
+ * <p>
+ * The pool is a deque of {@code [next, end)} ranges; {@link #take()} is O(1)
+ * and never touches the database while IDs are left. When the depth falls
+ * below app.short-code.pool.low-water, a worker refills it up to
+ * app.short-code.pool.target, first from ranges returned to Valkey by pods
+ * that shut down, then by leasing fresh blocks from urls_id_seq in their
+ * own transaction.
+ * <p>
+ * On shutdown the unused ranges are pushed to the Valkey list, and LPOP hands
+ * each one to exactly one pod later, so no ID is issued twice and none is
+ * thrown away. A crash loses the local pool, which only leaves gaps in the
+ * sequence.
+ */
+@ApplicationScoped
+public class ShortCodePool {
+
+    private static final Logger LOG = Logger.getLogger(ShortCodePool.class);
+
+    private final ArrayDeque<long[]> ranges = new ArrayDeque<>();
+    private final AtomicLong depth = new AtomicLong();
+    private final AtomicBoolean refilling = new AtomicBoolean();
+
+    @Inject
+    UrlRepository urlRepository;
+
+    @Inject
+    RedisDataSource redisDataSource;
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private ListCommands<String, String> listCommands;
+    private Timer refillTimer;
+    private Counter exhausted;
+    private volatile long blockSize;
+    private volatile boolean closed;
+
+    @PostConstruct
+    void init() {
+        listCommands = redisDataSource.list(String.class);
+        refillTimer = meterRegistry.timer("url.code-pool.refill");
+        exhausted = meterRegistry.counter("url.code-pool.exhausted");
+        meterRegistry.gauge("url.code-pool.depth", depth);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        Infrastructure.getDefaultWorkerPool().execute(this::refill);
+    }
+
+    void onStop(@Observes ShutdownEvent event) {
+        closed = true;
+
+        List<String> unused = new ArrayList<>();
+        synchronized (ranges) {
+            for (long[] range : ranges) {
+                unused.add(range[0] + "-" + range[1]);
+            }
+            ranges.clear();
+            depth.set(0);
+        }
+        if (unused.isEmpty()) {
+            return;
+        }
+
+        try {
+            listCommands.rpush(returnedKey(), unused.toArray(String[]::new));
+            LOG.infof("Returned %d unused ID ranges to the shared pool", unused.size());
+        } catch (Exception e) {
+            LOG.warnf("Could not return %d unused ID ranges, they are left as gaps: %s", unused.size(), e.getMessage());
+        }
+    }
+
+    /**
+     * Next reserved ID. Only blocks (to lease a block) when the pool has run
+     * dry because refills cannot keep up.
+     */
+    public long take() {
+        long id = poll();
+        while (id < 0) {
+            exhausted.increment();
+            addRange(reserveRange());
+            id = poll();
+        }
+
+        if (depth.get() < appConfig.shortCode().pool().lowWater() && !closed
+                && refilling.compareAndSet(false, true)) {
+            Infrastructure.getDefaultWorkerPool().execute(() -> {
+                try {
+                    refill();
+                } finally {
+                    refilling.set(false);
+                }
+            });
+        }
+        return id;
+    }
+
+    /**
+     * IDs currently reserved by this pod
+     */
+    public long depth() {
+        return depth.get();
+    }
+
+    void refill() {
+        long target = appConfig.shortCode().pool().target();
+        if (closed || depth.get() >= target) {
+            return;
+        }
+
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            while (!closed && depth.get() < target) {
+                addRange(reserveRange());
+            }
+            LOG.debugf("Short code pool refilled to %d IDs", depth.get());
+        } catch (Exception e) {
+            // take() falls back to a synchronous lease if the pool runs dry
+            LOG.errorf("Short code pool refill failed at %d IDs: %s", depth.get(), e.getMessage());
+        } finally {
+            sample.stop(refillTimer);
+        }
+    }
+
+    private long poll() {
+        synchronized (ranges) {
+            long[] range = ranges.peekFirst();
+            if (range == null) {
+                return -1;
+            }
+            long id = range[0]++;
+            if (range[0] >= range[1]) {
+                ranges.pollFirst();
+            }
+            depth.decrementAndGet();
+            return id;
+        }
+    }
+
+    private void addRange(long[] range) {
+        synchronized (ranges) {
+            ranges.addLast(range);
+            depth.addAndGet(range[1] - range[0]);
+        }
+    }
+
+    /**
+     * A range returned by another pod, or else a freshly leased block
+     */
+    private long[] reserveRange() {
+        String returned = listCommands.lpop(returnedKey());
+        if (returned != null) {
+            int dash = returned.indexOf('-');
+            return new long[]{Long.parseLong(returned.substring(0, dash)), Long.parseLong(returned.substring(dash + 1))};
+        }
+
+        return QuarkusTransaction.requiringNew().call(() -> {
+            if (blockSize == 0) {
+                blockSize = urlRepository.idBlockSize();
+            }
+            long start = urlRepository.leaseIdBlock();
+            LOG.debugf("Leased URL ID block [%d, %d)", start, start + blockSize);
+            return new long[]{start, start + blockSize};
+        });
+    }
+
+    private String returnedKey() {
+        return appConfig.shortCode().pool().returnedKey();
+    }
+}
@@ -0,0 +1,97 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.domain.UrlResolution;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Short-lived proof that a visitor already entered a link's password.
+ * <p>
+ * Token format: {@code <expiresAtEpochSeconds>.<base64url HMAC-SHA256>} where
+ * the MAC covers the short code, the expiry and the link's password hash.
+ * Changing the password therefore invalidates every token issued for it.
+ * Verifying costs one HMAC instead of a BCrypt check.
+ */
+@ApplicationScoped
+public class UnlockTokenService {
+
+    private static final Logger LOG = Logger.getLogger(UnlockTokenService.class);
+    private static final String ALGORITHM = "HmacSHA256";
+
+    @Inject
+    AppConfig appConfig;
+
+    private SecretKeySpec key;
+    private ThreadLocal<Mac> macs;
+
+    @PostConstruct
+    void init() {
+        byte[] secret = appConfig.unlockToken().secret()
+                .map(value -> value.getBytes(StandardCharsets.UTF_8))
+                .orElseGet(() -> {
+                    LOG.warn("app.unlock-token.secret is not set - using a random key, "
+                            + "unlock tokens will only be accepted by this instance");
+                    byte[] random = new byte[32];
+                    new SecureRandom().nextBytes(random);
+                    return random;
+                });
+
+        key = new SecretKeySpec(secret, ALGORITHM);
+        macs = ThreadLocal.withInitial(() -> {
+            try {
+                Mac mac = Mac.getInstance(ALGORITHM);
+                mac.init(key);
+                return mac;
+            } catch (GeneralSecurityException e) {
+                throw new IllegalStateException("HMAC-SHA256 unavailable", e);
+            }
+        });
+    }
+
+    public String issue(UrlResolution resolution) {
+        long expiresAt = System.currentTimeMillis() / 1000 + appConfig.unlockToken().ttl().toSeconds();
+        return expiresAt + "." + Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(sign(resolution, expiresAt));
+    }
+
+    /**
+     * @return true if the token was issued for this link and password and has not expired
+     */
+    public boolean verify(String token, UrlResolution resolution) {
+        if (token == null || token.isEmpty() || !resolution.hasPassword()) {
+            return false;
+        }
+
+        int dot = token.indexOf('.');
+        if (dot <= 0) {
+            return false;
+        }
+
+        try {
+            long expiresAt = Long.parseLong(token, 0, dot, 10);
+            if (expiresAt < System.currentTimeMillis() / 1000) {
+                return false;
+            }
+            byte[] presented = Base64.getUrlDecoder().decode(token.substring(dot + 1));
+            return MessageDigest.isEqual(presented, sign(resolution, expiresAt));
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private byte[] sign(UrlResolution resolution, long expiresAt) {
+        String payload = resolution.shortCode() + '|' + expiresAt + '|' + resolution.passwordHash();
+        return macs.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+    }
+}
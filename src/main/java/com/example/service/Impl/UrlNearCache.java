@@ -0,0 +1,141 @@
+package com.example.service.Impl;
+
+import com.example.config.AppConfig;
+import com.example.domain.UrlResolution;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import io.quarkus.redis.datasource.ReactiveRedisDataSource;
+import io.quarkus.redis.datasource.pubsub.ReactivePubSubCommands;
+import io.quarkus.runtime.StartupEvent;
+import jakarta.annotation.PostConstruct;
+import jakarta.enterprise.context.ApplicationScoped;
+import jakarta.enterprise.event.Observes;
+import jakarta.inject.Inject;
+import org.jboss.logging.Logger;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process L1 cache of resolved short codes, sitting in front of Valkey.
+ * <p>
+ * Backed by Caffeine (W-TinyLFU admission), so one-off scanner hits don't
+ * evict the hot working set. Entries are invalidated across pods through a
+ * Valkey pub/sub channel whenever a URL is updated or deleted.
+ * <p>
+ * Codes detected as hot by {@link HotKeyTracker} are additionally pinned:
+ * they are never evicted and are refreshed on a short interval instead of
+ * expiring, so the hottest keys never reach Valkey on the request path.
+ */
+@ApplicationScoped
+public class UrlNearCache {
+
+    private static final Logger LOG = Logger.getLogger(UrlNearCache.class);
+
+    @Inject
+    AppConfig appConfig;
+
+    @Inject
+    ReactiveRedisDataSource reactiveRedisDataSource;
+
+    @Inject
+    MeterRegistry meterRegistry;
+
+    private Cache<String, UrlResolution> cache;
+    private final Map<String, UrlResolution> pinned = new ConcurrentHashMap<>();
+    private ReactivePubSubCommands<String> pubSubCommands;
+    private boolean enabled;
+
+    private Counter pinnedHits;
+
+    @PostConstruct
+    void init() {
+        AppConfig.NearCacheConfig config = appConfig.cache().nearCache();
+        enabled = config.enabled();
+
+        cache = Caffeine.newBuilder()
+                .maximumSize(config.maxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.ttl()))
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "url-near-cache");
+        pinnedHits = meterRegistry.counter("url.near-cache.pinned.hits");
+        meterRegistry.gauge("url.near-cache.pinned", List.of(), pinned, Map::size);
+
+        pubSubCommands = reactiveRedisDataSource.pubsub(String.class);
+    }
+
+    void onStart(@Observes StartupEvent event) {
+        String channel = appConfig.cache().nearCache().invalidationChannel();
+        pubSubCommands.subscribe(channel, this::invalidateLocal)
+                .subscribe().with(
+                        subscriber -> LOG.infof("Near-cache subscribed to invalidation channel: %s", channel),
+                        failure -> LOG.errorf("Near-cache failed to subscribe to %s: %s", channel, failure.getMessage())
+                );
+    }
+
+    public Optional<UrlResolution> get(String shortCode) {
+        if (!enabled) {
+            return Optional.empty();
+        }
+
+        UrlResolution hot = pinned.get(shortCode);
+        if (hot != null) {
+            pinnedHits.increment();
+            return Optional.of(hot);
+        }
+        return Optional.ofNullable(cache.getIfPresent(shortCode));
+    }
+
+    public void put(UrlResolution resolution) {
+        if (enabled) {
+            cache.put(resolution.shortCode(), resolution);
+            pinned.computeIfPresent(resolution.shortCode(), (code, previous) -> resolution);
+        }
+    }
+
+    /**
+     * Keep the entry resident until {@link #unpin}; replaces any pinned copy
+     */
+    public void pin(UrlResolution resolution) {
+        if (enabled) {
+            pinned.put(resolution.shortCode(), resolution);
+        }
+    }
+
+    public void unpin(String shortCode) {
+        pinned.remove(shortCode);
+    }
+
+    public Set<String> pinnedCodes() {
+        return Set.copyOf(pinned.keySet());
+    }
+
+    /**
+     * Drop the entry on this pod and tell every other pod to do the same
+     */
+    public void invalidate(String shortCode) {
+        invalidateLocal(shortCode);
+
+        String channel = appConfig.cache().nearCache().invalidationChannel();
+        pubSubCommands.publish(channel, shortCode)
+                .subscribe().with(
+                        ignored -> LOG.debugf("Published near-cache invalidation: %s", shortCode),
+                        failure -> LOG.errorf("Failed to publish near-cache invalidation for %s: %s",
+                                shortCode, failure.getMessage())
+                );
+    }
+
+    void invalidateLocal(String shortCode) {
+        cache.invalidate(shortCode);
+        pinned.remove(shortCode);
+        LOG.debugf("Near-cache invalidated: %s", shortCode);
+    }
+}
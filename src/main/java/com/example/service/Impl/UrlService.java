@@ -3,22 +3,42 @@ package com.example.service.Impl;
 import com.example.config.AppConfig;
 import com.example.config.SecurityConfig;
 import com.example.domain.Url;
+import com.example.domain.UrlResolution;
 import com.example.domain.User;
 import com.example.dto.*;
 import com.example.exception.*;
 import com.example.repository.UrlRepository;
 import com.example.repository.UserRepository;
+import com.example.util.SurrogateKeys;
+import com.example.util.UrlCanonicalizer;
+import com.example.service.IEventPublisher;
 import com.example.service.IQRCodeService;
 import com.example.service.IUrlService;
+import io.quarkus.narayana.jta.QuarkusTransaction;
 import io.smallrye.mutiny.Uni;
 import jakarta.enterprise.context.ApplicationScoped;
 import jakarta.inject.Inject;
+import jakarta.transaction.Status;
+import jakarta.transaction.Synchronization;
+import jakarta.transaction.TransactionSynchronizationRegistry;
 import jakarta.transaction.Transactional;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.ValidationException;
+import jakarta.validation.Validator;
 import org.eclipse.microprofile.jwt.JsonWebToken;
 import org.jboss.logging.Logger;
 import org.mindrot.jbcrypt.BCrypt;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 import java.util.stream.Collectors;
 
@@ -26,6 +46,7 @@ import java.util.stream.Collectors;
 public class UrlService implements IUrlService {
 
     private static final Logger LOG = Logger.getLogger(UrlService.class);
+    private static final Set<Integer> REDIRECT_STATUSES = Set.of(301, 302, 307, 308);
     private static final String BASE_URL = "https://shorten.by"; // TODO: config
 
     @Inject
@@ -40,15 +61,27 @@ public class UrlService implements IUrlService {
     @Inject
     CacheService cacheService;
 
+    @Inject
+    ShortCodeFilter shortCodeFilter;
+
     @Inject
     IQRCodeService qrCodeService;
 
+    @Inject
+    IEventPublisher eventPublisher;
+
     @Inject
     JsonWebToken jwt;
 
     @Inject
     AppConfig appConfig;
 
+    @Inject
+    Validator validator;
+
+    @Inject
+    TransactionSynchronizationRegistry transactionRegistry;
+
     @Transactional
     public ShortenResponse shorten(ShortenRequest request) {
         LOG.infof("Shortening URL: %s", request.getOriginalUrl());
@@ -58,6 +91,18 @@ public class UrlService implements IUrlService {
         User user = userRepository.findById(userId)
                 .orElseThrow(() -> new UserNotFoundException("User not found"));
 
+        // 1a. Opt-in: hand back the user's existing link to the same destination
+        Optional<String> canonicalUrl = reuseCandidate(request);
+        if (canonicalUrl.isPresent()) {
+            Url existing = findReusable(userId, List.of(canonicalUrl.get())).get(canonicalUrl.get());
+            if (existing != null) {
+                LOG.infof("Reusing existing link %s for %s", existing.shortCode, request.getOriginalUrl());
+                ShortenResponse response = mapToShortenResponse(existing);
+                response.setReused(true);
+                return response;
+            }
+        }
+
         // 2. Check user limits
         if (!user.canCreateLink()) {
             throw new LimitExceededException(
@@ -71,7 +116,8 @@ public class UrlService implements IUrlService {
             throw new InvalidUrlException("Invalid URL format");
         }
 
-        // 4. Generate or validate short code
+        // 4. Generate or validate short code (IDs come from a leased block, no lookup)
+        long id;
         String shortCode;
         boolean isCustom = false;
 
@@ -91,27 +137,308 @@ public class UrlService implements IUrlService {
                 throw new ShortCodeTakenException("This alias is already taken");
             }
 
+            id = codeGenerator.nextId();
             shortCode = alias;
             isCustom = true;
             LOG.infof("Using custom alias: %s", alias);
 
         } else {
             // Auto-generate
-            shortCode = codeGenerator.generateUnique();
+            ShortCodeGenerator.Allocation allocation = codeGenerator.allocate();
+            id = allocation.id();
+            shortCode = allocation.shortCode();
             LOG.infof("Generated short code: %s", shortCode);
         }
 
-        // 5. Hash password if provided
-        String passwordHash = null;
-        if (request.getPassword() != null && !request.getPassword().isEmpty()) {
-            passwordHash = BCrypt.hashpw(request.getPassword(), BCrypt.gensalt());
-            LOG.debug("Password protection enabled");
+        // 5-6. Create URL entity (hashes the password if provided)
+        Url url = newUrl(id, shortCode, isCustom, userId, request, hashPassword(request));
+
+        // 7. Persist to database
+        urlRepository.persist(url);
+        shortCodeFilter.addAfterCommit(shortCode);
+
+        // 8. Update user stats
+        user.incrementLinksCreated();
+        userRepository.persist(user);
+
+        LOG.infof("URL shortened successfully: %s -> %s", url.originalUrl, url.shortCode);
+
+        // 9. Build and return response
+        return mapToShortenResponse(url);
+    }
+
+    /**
+     * Shorten many URLs for the current user in one transaction: one user
+     * lookup, one set-based alias check, multi-row INSERTs and a single
+     * links_created update. Invalid or conflicting items fail individually.
+     * Passwords are hashed before the transaction opens, so BCrypt never
+     * holds a connection.
+     */
+    public BatchShortenResponse shortenBatch(BatchShortenRequest request) {
+        List<ShortenRequest> items = request.getItems();
+        AppConfig.BatchShortenConfig config = appConfig.batchShorten();
+        if (items.size() > config.maxItems()) {
+            throw new ValidationException("A batch cannot exceed " + config.maxItems() + " items");
+        }
+
+        long protectedItems = items.stream()
+                .filter(item -> item != null && item.getPassword() != null && !item.getPassword().isEmpty())
+                .count();
+        if (protectedItems > config.maxProtectedItems()) {
+            throw new ValidationException("A batch cannot have more than " + config.maxProtectedItems()
+                    + " password-protected items");
+        }
+
+        Map<Integer, String> passwordHashes = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ShortenRequest item = items.get(i);
+            if (item != null && validateBatchItem(item) == null) {
+                String hash = hashPassword(item);
+                if (hash != null) {
+                    passwordHashes.put(i, hash);
+                }
+            }
+        }
+
+        return QuarkusTransaction.requiringNew().call(() -> shortenBatch(items, passwordHashes));
+    }
+
+    private BatchShortenResponse shortenBatch(List<ShortenRequest> items, Map<Integer, String> passwordHashes) {
+        AppConfig.BatchShortenConfig config = appConfig.batchShorten();
+        LOG.infof("Shortening batch of %d URLs", items.size());
+
+        UUID userId = getCurrentUserId();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new UserNotFoundException("User not found"));
+
+        BatchShortenResult[] results = new BatchShortenResult[items.size()];
+
+        // 1. Validate every item without touching the database
+        Map<String, Integer> aliases = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            ShortenRequest item = items.get(i);
+            String error = validateBatchItem(item);
+            if (error != null) {
+                results[i] = failed(i, 400, error);
+                continue;
+            }
+
+            String alias = item.getCustomAlias();
+            if (alias != null && !alias.isEmpty() && aliases.putIfAbsent(alias, i) != null) {
+                results[i] = failed(i, 409, "Alias is used twice in this batch");
+            }
+        }
+
+        // 1a. One index lookup for every item that opted into reuse
+        Map<Integer, String> reuseCandidates = new HashMap<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] == null) {
+                int index = i;
+                reuseCandidate(items.get(i)).ifPresent(canonical -> reuseCandidates.put(index, canonical));
+            }
+        }
+        if (!reuseCandidates.isEmpty()) {
+            Map<String, Url> reusable = findReusable(userId, reuseCandidates.values());
+            reuseCandidates.forEach((index, canonical) -> {
+                Url existing = reusable.get(canonical);
+                if (existing != null) {
+                    ShortenResponse response = mapToShortenResponse(existing);
+                    response.setReused(true);
+                    results[index] = BatchShortenResult.builder()
+                            .index(index)
+                            .status(200)
+                            .url(response)
+                            .build();
+                }
+            });
+        }
+
+        // 2. One query for every requested alias
+        for (String taken : urlRepository.findExistingShortCodes(aliases.keySet())) {
+            int index = aliases.remove(taken);
+            results[index] = failed(index, 409, "This alias is already taken");
         }
 
-        // 6. Create URL entity
+        // 3. Allocate IDs and codes up to the user's remaining quota
+        int remaining = Math.max(0, user.linksLimit - user.linksCreated);
+        List<Url> urls = new ArrayList<>();
+        List<Integer> indexes = new ArrayList<>();
+        for (int i = 0; i < items.size(); i++) {
+            if (results[i] != null) {
+                continue;
+            }
+            if (urls.size() >= remaining) {
+                results[i] = failed(i, 403, String.format("Link limit reached (%d/%d)",
+                        user.linksCreated + urls.size(), user.linksLimit));
+                continue;
+            }
+
+            ShortenRequest item = items.get(i);
+            String alias = item.getCustomAlias();
+            try {
+                Url url;
+                if (alias != null && !alias.isEmpty()) {
+                    url = newUrl(codeGenerator.nextId(), alias, true, userId, item, passwordHashes.get(i));
+                } else {
+                    ShortCodeGenerator.Allocation allocation = codeGenerator.allocate();
+                    while (aliases.containsKey(allocation.shortCode())) {
+                        allocation = codeGenerator.allocate();
+                    }
+                    url = newUrl(allocation.id(), allocation.shortCode(), false, userId, item, passwordHashes.get(i));
+                }
+                urls.add(url);
+                indexes.add(i);
+            } catch (ValidationException e) {
+                results[i] = failed(i, 400, e.getMessage());
+            }
+        }
+
+        // 4. Multi-row inserts; a code taken since step 2 fails only its item
+        Instant now = Instant.now();
+        List<String> createdCodes = new ArrayList<>(urls.size());
+        for (int from = 0; from < urls.size(); from += config.insertChunkSize()) {
+            List<Url> chunk = urls.subList(from, Math.min(from + config.insertChunkSize(), urls.size()));
+            Set<Long> inserted = urlRepository.insertBatch(userId, chunk, now);
+
+            for (int j = 0; j < chunk.size(); j++) {
+                Url url = chunk.get(j);
+                int index = indexes.get(from + j);
+                if (inserted.contains(url.id)) {
+                    url.createdAt = now;
+                    results[index] = BatchShortenResult.builder()
+                            .index(index)
+                            .status(201)
+                            .url(mapToShortenResponse(url))
+                            .build();
+                    createdCodes.add(url.shortCode);
+                } else {
+                    results[index] = failed(index, 409, "This short code is already taken");
+                }
+            }
+        }
+        shortCodeFilter.addAllAfterCommit(createdCodes);
+
+        // 5. User stats, once
+        user.linksCreated += createdCodes.size();
+        userRepository.persist(user);
+
+        int failed = 0;
+        for (BatchShortenResult result : results) {
+            if (result.getError() != null) {
+                failed++;
+            }
+        }
+        LOG.infof("Batch shortened: %d created, %d failed", createdCodes.size(), failed);
+
+        return BatchShortenResponse.builder()
+                .created(createdCodes.size())
+                .failed(failed)
+                .results(List.of(results))
+                .build();
+    }
+
+    /**
+     * Bean Validation plus the checks {@link #shorten} makes before any I/O
+     *
+     * @return the first problem, or null if the item is valid
+     */
+    private String validateBatchItem(ShortenRequest item) {
+        if (item == null) {
+            return "Item is required";
+        }
+
+        Set<ConstraintViolation<ShortenRequest>> violations = validator.validate(item);
+        if (!violations.isEmpty()) {
+            return violations.iterator().next().getMessage();
+        }
+
+        if (!codeGenerator.isValidUrl(item.getOriginalUrl())) {
+            return "Invalid URL format";
+        }
+
+        String alias = item.getCustomAlias();
+        if (alias != null && !alias.isEmpty()) {
+            if (!codeGenerator.isValidCustomAlias(alias)) {
+                return "Invalid custom alias format";
+            }
+            if (codeGenerator.isReserved(alias)) {
+                return "This alias is reserved";
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Canonical URL to look up if the request opted into reuse and can share
+     * a link (no alias, password or expiry of its own)
+     */
+    private Optional<String> reuseCandidate(ShortenRequest request) {
+        if (!Boolean.TRUE.equals(request.getReuseExisting())
+                || (request.getCustomAlias() != null && !request.getCustomAlias().isEmpty())
+                || (request.getPassword() != null && !request.getPassword().isEmpty())
+                || request.getExpiresAt() != null
+                || request.getOriginalUrl() == null) {
+            return Optional.empty();
+        }
+
+        try {
+            return Optional.of(UrlCanonicalizer.canonicalize(request.getOriginalUrl()));
+        } catch (IllegalArgumentException e) {
+            // Rejected by the regular URL validation
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * The user's reusable links (active, unprotected, never expiring) keyed by
+     * canonical URL, confirming each hash match against the canonical form
+     */
+    private Map<String, Url> findReusable(UUID userId, Collection<String> canonicalUrls) {
+        Set<Long> hashes = new HashSet<>();
+        for (String canonical : canonicalUrls) {
+            hashes.add(UrlCanonicalizer.hash(canonical));
+        }
+
+        Set<String> wanted = new HashSet<>(canonicalUrls);
+        Map<String, Url> reusable = new HashMap<>();
+        for (Url url : urlRepository.findActiveByCanonicalHashes(userId, hashes)) {
+            if (url.hasPassword() || url.expiresAt != null) {
+                continue;
+            }
+            String canonical = UrlCanonicalizer.canonicalize(url.originalUrl);
+            if (wanted.contains(canonical)) {
+                reusable.putIfAbsent(canonical, url);
+            }
+        }
+        return reusable;
+    }
+
+    private static BatchShortenResult failed(int index, int status, String error) {
+        return BatchShortenResult.builder()
+                .index(index)
+                .status(status)
+                .error(error)
+                .build();
+    }
+
+    /**
+     * @return the BCrypt hash of the request's password, or null if it has none
+     */
+    private static String hashPassword(ShortenRequest request) {
+        if (request.getPassword() == null || request.getPassword().isEmpty()) {
+            return null;
+        }
+        LOG.debug("Password protection enabled");
+        return BCrypt.hashpw(request.getPassword(), BCrypt.gensalt());
+    }
+
+    private Url newUrl(long id, String shortCode, boolean isCustom, UUID userId, ShortenRequest request,
+                       String passwordHash) {
         Url url = new Url();
+        url.id = id;
         url.shortCode = shortCode;
         url.originalUrl = request.getOriginalUrl();
+        url.canonicalUrlHash = UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize(url.originalUrl));
         url.userId = userId;
         url.passwordHash = passwordHash;
         url.title = request.getTitle();
@@ -119,25 +446,19 @@ public class UrlService implements IUrlService {
         url.isCustom = isCustom;
         url.isActive = true;
         url.clicks = 0;
+        applyRedirectPolicy(url, request.getRedirectStatus(), request.getRedirectMaxAge(), request.getSurrogateKey());
+        return url;
+    }
 
-        // 7. Persist to database
-        urlRepository.persist(url);
-
-        // 8. Update user stats
-        user.incrementLinksCreated();
-        userRepository.persist(user);
-
-        LOG.infof("URL shortened successfully: %s -> %s", url.originalUrl, url.shortCode);
-
-        // 9. Build and return response
+    private ShortenResponse mapToShortenResponse(Url url) {
         return ShortenResponse.builder()
                 .id(url.id)
-                .shortCode(shortCode)
-                .shortUrl(buildShortUrl(shortCode))
+                .shortCode(url.shortCode)
+                .shortUrl(buildShortUrl(url.shortCode))
                 .originalUrl(url.originalUrl)
-                .qrCodeUrl(buildQrCodeUrl(shortCode))
+                .qrCodeUrl(buildQrCodeUrl(url.shortCode))
                 .title(url.title)
-                .clicks(0)
+                .clicks(url.clicks)
                 .hasPassword(url.hasPassword())
                 .expiresAt(url.expiresAt)
                 .createdAt(url.createdAt)
@@ -150,8 +471,8 @@ public class UrlService implements IUrlService {
         LOG.debugf("Redirecting short code: %s", shortCode);
 
         // Try cache first
-        return cacheService.getOriginalUrl(shortCode)
-                .onItem().ifNotNull().transform(url -> url)
+        return cacheService.getResolution(shortCode)
+                .onItem().ifNotNull().transform(UrlResolution::originalUrl)
                 .onItem().ifNull().switchTo(() -> {
                     // Cache miss - get from database
                     Url url = urlRepository.findByShortCode(shortCode)
@@ -162,7 +483,8 @@ public class UrlService implements IUrlService {
                     urlRepository.persist(url);
 
                     // Cache for next time
-                    cacheService.cacheOriginalUrl(shortCode, url.originalUrl, appConfig.cache().urlTtl())
+                    cacheService.cacheResolution(UrlResolution.from(url),
+                                    appConfig.cache().urlTtl() + appConfig.cache().staleIfError())
                             .subscribe().with(
                                     item -> LOG.debugf("Cached URL: %s", shortCode),
                                     failure -> LOG.errorf("Failed to cache URL: %s", failure.getMessage())
@@ -262,6 +584,7 @@ public class UrlService implements IUrlService {
                 throw new InvalidUrlException("Invalid URL format");
             }
             url.originalUrl = request.getOriginalUrl();
+            url.canonicalUrlHash = UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize(url.originalUrl));
             cacheInvalidated = true;
         }
 
@@ -271,6 +594,7 @@ public class UrlService implements IUrlService {
 
         if (request.getExpiresAt() != null) {
             url.expiresAt = request.getExpiresAt();
+            cacheInvalidated = true;
         }
 
         if (request.getIsActive() != null) {
@@ -278,12 +602,22 @@ public class UrlService implements IUrlService {
             cacheInvalidated = true;
         }
 
+        // Purge the old group key too if the surrogate key changes
+        Set<String> surrogateKeys = SurrogateKeys.forLink(shortCode, url.surrogateKey);
+        if (applyRedirectPolicy(url, request.getRedirectStatus(), request.getRedirectMaxAge(), request.getSurrogateKey())) {
+            cacheInvalidated = true;
+        }
+        surrogateKeys.addAll(SurrogateKeys.forLink(shortCode, url.surrogateKey));
+
         // Persist changes
         urlRepository.persist(url);
 
-        // Invalidate cache if URL or status changed
+        // Invalidate cache (ours and the edge's) if URL, expiry, status or redirect policy changed
         if (cacheInvalidated) {
-            cacheService.delete(CacheService.urlCacheKey(shortCode));
+            afterCommit(() -> {
+                cacheService.evictUrl(shortCode);
+                eventPublisher.publishCachePurge(shortCode, surrogateKeys);
+            });
             LOG.debug("Cache invalidated for: " + shortCode);
         }
 
@@ -310,8 +644,12 @@ public class UrlService implements IUrlService {
         url.isActive = false;
         urlRepository.persist(url);
 
-        // Invalidate cache
-        cacheService.delete(CacheService.urlCacheKey(shortCode));
+        // Invalidate cache (ours and the edge's)
+        Set<String> surrogateKeys = SurrogateKeys.forLink(shortCode, url.surrogateKey);
+        afterCommit(() -> {
+            cacheService.evictUrl(shortCode);
+            eventPublisher.publishCachePurge(shortCode, surrogateKeys);
+        });
 
         // Update user stats
         User user = userRepository.findById(currentUserId)
@@ -325,6 +663,32 @@ public class UrlService implements IUrlService {
     }
 
 
+    /**
+     * Run once the current transaction has committed (now, if there is none).
+     * Evicting or purging before the commit lets a concurrent redirect (or
+     * the edge) reload the old row and cache it again for a full TTL.
+     * Runs on the committing thread; must not throw.
+     */
+    private void afterCommit(Runnable action) {
+        if (transactionRegistry.getTransactionStatus() != Status.STATUS_ACTIVE) {
+            action.run();
+            return;
+        }
+
+        transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    action.run();
+                }
+            }
+        });
+    }
+
     @Override
     public byte[] generateQRCode(String shortCode) {
         LOG.debugf("Generating QR code for: %s", shortCode);
@@ -380,12 +744,45 @@ public class UrlService implements IUrlService {
                 .expiresAt(url.expiresAt)
                 .isActive(url.isActive)
                 .isCustom(url.isCustom)
+                .redirectStatus(url.redirectStatus)
+                .redirectMaxAge(url.redirectMaxAge)
+                .surrogateKey(url.surrogateKey)
                 .createdAt(url.createdAt)
                 .updatedAt(url.updatedAt)
                 .lastAccessedAt(url.lastAccessedAt)
                 .build();
     }
 
+    /**
+     * Apply the non-null parts of a redirect policy (empty surrogate key clears it)
+     *
+     * @return true if anything changed
+     */
+    private boolean applyRedirectPolicy(Url url, Integer redirectStatus, Integer redirectMaxAge, String surrogateKey) {
+        boolean changed = false;
+
+        if (redirectStatus != null) {
+            if (!REDIRECT_STATUSES.contains(redirectStatus)) {
+                throw new ValidationException("Redirect status must be one of 301, 302, 307, 308");
+            }
+            changed |= !redirectStatus.equals(url.redirectStatus);
+            url.redirectStatus = redirectStatus;
+        }
+
+        if (redirectMaxAge != null) {
+            changed |= !redirectMaxAge.equals(url.redirectMaxAge);
+            url.redirectMaxAge = redirectMaxAge;
+        }
+
+        if (surrogateKey != null) {
+            String normalized = surrogateKey.isEmpty() ? null : surrogateKey;
+            changed |= !Objects.equals(normalized, url.surrogateKey);
+            url.surrogateKey = normalized;
+        }
+
+        return changed;
+    }
+
     public boolean checkPassword(String input, String hash) {
         return SecurityConfig.SecurityHelper.verifyPassword(input, hash);
     }
@@ -0,0 +1,125 @@
+package com.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Thread-safe Bloom filter over strings.
+ * <p>
+ * Sized from the expected number of insertions and target false-positive
+ * rate; uses Kirsch-Mitzenmacher double hashing over a 64-bit FNV-1a hash,
+ * so each probe costs one hash computation regardless of k. Bit positions
+ * are 64-bit, so the filter can address up to {@link #MAX_BITS} bits.
+ */
+public final class BloomFilter {
+
+    /**
+     * Largest size an AtomicLongArray of 64-bit words can hold
+     */
+    public static final long MAX_BITS = (long) Integer.MAX_VALUE << 6;
+
+    private final AtomicLongArray words;
+    private final long bitSize;
+    private final int hashFunctions;
+    private final long expectedInsertions;
+
+    private BloomFilter(long bitSize, int hashFunctions, long expectedInsertions) {
+        this.words = new AtomicLongArray((int) ((bitSize + 63) >>> 6));
+        this.bitSize = (long) words.length() << 6;
+        this.hashFunctions = hashFunctions;
+        this.expectedInsertions = expectedInsertions;
+    }
+
+    public static BloomFilter create(long expectedInsertions, double falsePositiveRate) {
+        long n = Math.max(1, expectedInsertions);
+        long bits = (long) Math.ceil(-n * Math.log(falsePositiveRate) / (Math.log(2) * Math.log(2)));
+        int k = Math.max(1, (int) Math.round((double) bits / n * Math.log(2)));
+        if (bits > MAX_BITS) {
+            throw new IllegalArgumentException(String.format(
+                    "Bloom filter of %d bits (%d insertions at fpp %s) exceeds the %d bit limit",
+                    bits, n, falsePositiveRate, MAX_BITS));
+        }
+        return new BloomFilter(Math.max(64, bits), k, n);
+    }
+
+    public void put(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+
+            long current;
+            do {
+                current = words.get(word);
+                if ((current & mask) != 0) {
+                    break;
+                }
+            } while (!words.compareAndSet(word, current, current | mask));
+        }
+    }
+
+    /**
+     * @return false if the value was definitely never added
+     */
+    public boolean mightContain(String value) {
+        long h1 = hash(value);
+        long h2 = secondHash(h1);
+
+        for (int i = 1; i <= hashFunctions; i++) {
+            long bit = index(h1 + i * h2);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public long bitSize() {
+        return bitSize;
+    }
+
+    public int hashFunctions() {
+        return hashFunctions;
+    }
+
+    public long expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    /**
+     * Current false-positive probability, estimated from the fill ratio
+     */
+    public double estimatedFalsePositiveRate() {
+        long setBits = 0;
+        for (int i = 0; i < words.length(); i++) {
+            setBits += Long.bitCount(words.get(i));
+        }
+        return Math.pow((double) setBits / bitSize, hashFunctions);
+    }
+
+    private long index(long combinedHash) {
+        // Drop the sign bit, as Guava does for its 64-bit strategy
+        return (combinedHash & Long.MAX_VALUE) % bitSize;
+    }
+
+    private static long hash(String value) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001b3L;
+        }
+        // Final avalanche so both 32-bit halves are well mixed
+        return Hashing.fmix64(hash);
+    }
+
+    /**
+     * Second probe hash for double hashing: another fmix64 round over a
+     * golden-ratio offset of the first, forced non-zero so the k probes differ
+     */
+    private static long secondHash(long hash) {
+        return Hashing.fmix64(hash ^ 0x9e3779b97f4a7c15L) | 1;
+    }
+}
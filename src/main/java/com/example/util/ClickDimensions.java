@@ -0,0 +1,85 @@
+package com.example.util;
+
+import java.util.Locale;
+
+/**
+ * Low-cardinality dimensions derived from a click, as stored in url_clicks
+ * and the click rollups. Missing values map to fixed placeholders (never
+ * null) so they can be part of the rollup primary keys.
+ */
+public final class ClickDimensions {
+
+    public static final String DIRECT = "direct";
+    public static final String UNKNOWN = "unknown";
+
+    private ClickDimensions() {
+    }
+
+    /**
+     * Referer host, lower-cased and without "www." ({@value #DIRECT} if none)
+     */
+    public static String refererDomain(String referer) {
+        if (referer == null || referer.isEmpty()) {
+            return DIRECT;
+        }
+
+        int start = referer.indexOf("://");
+        start = start < 0 ? 0 : start + 3;
+        int end = start;
+        while (end < referer.length() && "/?#".indexOf(referer.charAt(end)) < 0) {
+            end++;
+        }
+
+        String host = referer.substring(start, end);
+        int userInfo = host.lastIndexOf('@');
+        if (userInfo >= 0) {
+            host = host.substring(userInfo + 1);
+        }
+        int port = host.lastIndexOf(':');
+        if (port >= 0 && !host.endsWith("]")) {
+            host = host.substring(0, port);
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        if (host.startsWith("www.")) {
+            host = host.substring(4);
+        }
+
+        if (host.isEmpty()) {
+            return UNKNOWN;
+        }
+        return host.length() > 253 ? host.substring(0, 253) : host;
+    }
+
+    /**
+     * Two-letter upper-case country code ({@value #UNKNOWN} if absent or malformed)
+     */
+    public static String country(String country) {
+        if (country == null || country.length() != 2
+                || !Character.isLetter(country.charAt(0)) || !Character.isLetter(country.charAt(1))) {
+            return UNKNOWN;
+        }
+        return country.toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * Coarse device class from the user agent: bot, tablet, mobile or desktop
+     */
+    public static String deviceType(String userAgent) {
+        if (userAgent == null || userAgent.isEmpty()) {
+            return UNKNOWN;
+        }
+
+        String ua = userAgent.toLowerCase(Locale.ROOT);
+        if (ua.contains("bot") || ua.contains("crawler") || ua.contains("spider")
+                || ua.contains("curl") || ua.contains("wget") || ua.contains("preview")) {
+            return "bot";
+        }
+        if (ua.contains("ipad") || ua.contains("tablet") || (ua.contains("android") && !ua.contains("mobile"))) {
+            return "tablet";
+        }
+        if (ua.contains("mobile") || ua.contains("iphone") || ua.contains("android")) {
+            return "mobile";
+        }
+        return "desktop";
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.util;
+
+import com.example.dto.ClickEvent;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Compact binary encoding for {@link ClickEvent} on the Pulsar topic.
+ * <p>
+ * Layout (version 1):
+ * <pre>
+ * u8      version
+ * u8      presence bitmap (bit 0 urlId, 1 ip, 2 userAgent, 3 referer, 4 timestamp, 5 country)
+ * varlong timestamp (epoch millis)     if present
+ * varlong urlId                        if present
+ * string  shortCode
+ * string  ipAddress                    if present
+ * string  userAgent                    if present
+ * string  referer                      if present
+ * string  country                      if present
+ * </pre>
+ * where {@code string} is a varint byte length followed by UTF-8 bytes.
+ * Drops field names, quoting and ISO timestamps, so it is smaller than JSON and
+ * several times cheaper to encode/decode; user agent and referer strings still
+ * dominate the size, which producer-side batch compression takes care of.
+ */
+public final class ClickEventCodec {
+
+    public static final byte VERSION = 1;
+
+    private static final int HAS_URL_ID = 1;
+    private static final int HAS_IP = 1 << 1;
+    private static final int HAS_USER_AGENT = 1 << 2;
+    private static final int HAS_REFERER = 1 << 3;
+    private static final int HAS_TIMESTAMP = 1 << 4;
+    private static final int HAS_COUNTRY = 1 << 5;
+
+    private ClickEventCodec() {
+    }
+
+    public static byte[] encode(ClickEvent event) {
+        int flags = 0;
+        if (event.getUrlId() != null) flags |= HAS_URL_ID;
+        if (event.getIpAddress() != null) flags |= HAS_IP;
+        if (event.getUserAgent() != null) flags |= HAS_USER_AGENT;
+        if (event.getReferer() != null) flags |= HAS_REFERER;
+        if (event.getTimestamp() != null) flags |= HAS_TIMESTAMP;
+        if (event.getCountry() != null) flags |= HAS_COUNTRY;
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(64 + length(event.getUserAgent()) + length(event.getReferer()));
+        out.write(VERSION);
+        out.write(flags);
+
+        if (event.getTimestamp() != null) writeVarLong(out, event.getTimestamp().toEpochMilli());
+        if (event.getUrlId() != null) writeVarLong(out, event.getUrlId());
+        writeString(out, event.getShortCode() != null ? event.getShortCode() : "");
+        if (event.getIpAddress() != null) writeString(out, event.getIpAddress());
+        if (event.getUserAgent() != null) writeString(out, event.getUserAgent());
+        if (event.getReferer() != null) writeString(out, event.getReferer());
+        if (event.getCountry() != null) writeString(out, event.getCountry());
+
+        return out.toByteArray();
+    }
+
+    /**
+     * @throws IllegalArgumentException if the data is truncated or in another version
+     */
+    public static ClickEvent decode(byte[] data) {
+        Reader in = new Reader(data);
+
+        int version = in.readByte();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("Unsupported click event encoding version: " + version);
+        }
+        int flags = in.readByte();
+
+        ClickEvent.ClickEventBuilder builder = ClickEvent.builder();
+        if ((flags & HAS_TIMESTAMP) != 0) builder.timestamp(Instant.ofEpochMilli(in.readVarLong()));
+        if ((flags & HAS_URL_ID) != 0) builder.urlId(in.readVarLong());
+        builder.shortCode(in.readString());
+        if ((flags & HAS_IP) != 0) builder.ipAddress(in.readString());
+        if ((flags & HAS_USER_AGENT) != 0) builder.userAgent(in.readString());
+        if ((flags & HAS_REFERER) != 0) builder.referer(in.readString());
+        if ((flags & HAS_COUNTRY) != 0) builder.country(in.readString());
+
+        return builder.build();
+    }
+
+    private static int length(String value) {
+        return value != null ? value.length() : 0;
+    }
+
+    private static void writeString(ByteArrayOutputStream out, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        writeVarLong(out, bytes.length);
+        out.write(bytes, 0, bytes.length);
+    }
+
+    private static void writeVarLong(ByteArrayOutputStream out, long value) {
+        while ((value & ~0x7FL) != 0) {
+            out.write((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.write((int) value);
+    }
+
+    private static final class Reader {
+        private final byte[] data;
+        private int position;
+
+        Reader(byte[] data) {
+            this.data = data;
+        }
+
+        int readByte() {
+            if (position >= data.length) {
+                throw new IllegalArgumentException("Truncated click event");
+            }
+            return data[position++] & 0xFF;
+        }
+
+        long readVarLong() {
+            long value = 0;
+            int shift = 0;
+            int b;
+            do {
+                b = readByte();
+                value |= (long) (b & 0x7F) << shift;
+                shift += 7;
+            } while ((b & 0x80) != 0);
+            return value;
+        }
+
+        String readString() {
+            long length = readVarLong();
+            if (length < 0 || length > data.length - position) {
+                throw new IllegalArgumentException("Click event string length out of bounds: " + length);
+            }
+            String value = new String(data, position, (int) length, StandardCharsets.UTF_8);
+            position += (int) length;
+            return value;
+        }
+    }
+}
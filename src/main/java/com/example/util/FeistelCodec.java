@@ -0,0 +1,138 @@
+package com.example.util;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Keyed bijection between numeric IDs and fixed-length base62 codes.
+ * <p>
+ * IDs in {@code [0, 62^length)} go through a 4-round balanced Feistel
+ * network over the smallest even number of bits that covers the domain;
+ * results that land outside the domain are encrypted again (cycle walking)
+ * until they fall inside it. Distinct IDs therefore always give distinct
+ * codes, consecutive IDs give unrelated-looking codes, and
+ * {@link #decode(String)} recovers the ID.
+ * <p>
+ * The key fixes the permutation: changing it makes new codes collide with
+ * existing ones.
+ */
+public final class FeistelCodec {
+
+    public static final String BASE62 = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz";
+
+    private static final int ROUNDS = 4;
+
+    private final int length;
+    private final long domain;
+    private final int halfBits;
+    private final long halfMask;
+    private final long[] roundKeys = new long[ROUNDS];
+
+    public FeistelCodec(String key, int length) {
+        this.length = length;
+
+        long size = 1;
+        for (int i = 0; i < length; i++) {
+            size = Math.multiplyExact(size, BASE62.length());
+        }
+        this.domain = size;
+
+        int bits = 64 - Long.numberOfLeadingZeros(size - 1);
+        this.halfBits = (bits + 1) / 2;
+        this.halfMask = (1L << halfBits) - 1;
+
+        byte[] digest = sha256(key);
+        for (int round = 0; round < ROUNDS; round++) {
+            long roundKey = 0;
+            for (int i = 0; i < 8; i++) {
+                roundKey = (roundKey << 8) | (digest[round * 8 + i] & 0xff);
+            }
+            roundKeys[round] = roundKey;
+        }
+    }
+
+    /**
+     * Number of distinct IDs (and codes) this codec can represent
+     */
+    public long capacity() {
+        return domain;
+    }
+
+    public String encode(long id) {
+        if (id < 0 || id >= domain) {
+            throw new IllegalArgumentException("ID out of range for " + length + "-char codes: " + id);
+        }
+
+        long value = encrypt(id);
+        while (value >= domain) {
+            value = encrypt(value);
+        }
+
+        char[] code = new char[length];
+        for (int i = length - 1; i >= 0; i--) {
+            code[i] = BASE62.charAt((int) (value % BASE62.length()));
+            value /= BASE62.length();
+        }
+        return new String(code);
+    }
+
+    /**
+     * @return the ID the code was generated from, or -1 if it is not a code of this length/alphabet
+     */
+    public long decode(String code) {
+        if (code == null || code.length() != length) {
+            return -1;
+        }
+
+        long value = 0;
+        for (int i = 0; i < length; i++) {
+            int digit = BASE62.indexOf(code.charAt(i));
+            if (digit < 0) {
+                return -1;
+            }
+            value = value * BASE62.length() + digit;
+        }
+
+        value = decrypt(value);
+        while (value >= domain) {
+            value = decrypt(value);
+        }
+        return value;
+    }
+
+    private long encrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = 0; round < ROUNDS; round++) {
+            long next = left ^ round(right, round);
+            left = right;
+            right = next;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long decrypt(long value) {
+        long left = value >>> halfBits;
+        long right = value & halfMask;
+        for (int round = ROUNDS - 1; round >= 0; round--) {
+            long previous = right ^ round(left, round);
+            right = left;
+            left = previous;
+        }
+        return (left << halfBits) | right;
+    }
+
+    private long round(long half, int round) {
+        // fmix64 of the half mixed with the round key
+        return Hashing.fmix64(half * 0x9e3779b97f4a7c15L ^ roundKeys[round]) & halfMask;
+    }
+
+    private static byte[] sha256(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 unavailable", e);
+        }
+    }
+}
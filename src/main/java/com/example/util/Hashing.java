@@ -0,0 +1,23 @@
+package com.example.util;
+
+/**
+ * Shared 64-bit hash mixing for the in-memory sketches and filters.
+ */
+public final class Hashing {
+
+    private Hashing() {
+    }
+
+    /**
+     * MurmurHash3 fmix64 finalizer: a bijective avalanche, so every input bit
+     * affects every output bit
+     */
+    public static long fmix64(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,146 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Streaming top-k of the most frequent strings.
+ * <p>
+ * A Count-Min sketch (depth x width counters) estimates every key's count
+ * in fixed memory; a candidate set of at most k keys keeps the largest
+ * estimates seen so far. Counts never under-estimate; the over-estimate is
+ * at most {@code 2 * total / width} with probability {@code 1 - (1/2)^depth}.
+ * <p>
+ * Recording is lock-free unless a key is about to enter the candidate set.
+ * {@link #decay()} halves every count, so the result tracks what is hot now
+ * rather than since startup.
+ */
+public final class HeavyHitters {
+
+    private final AtomicLongArray counters;
+    private final int width;
+    private final int depth;
+    private final int k;
+
+    private final ConcurrentHashMap<String, Long> candidates = new ConcurrentHashMap<>();
+    private volatile long admissionThreshold;
+
+    public HeavyHitters(int k, int width, int depth) {
+        this.k = k;
+        this.width = width;
+        this.depth = depth;
+        this.counters = new AtomicLongArray(width * depth);
+    }
+
+    /**
+     * Count one occurrence of the key
+     *
+     * @return the key's estimated count
+     */
+    public long add(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.incrementAndGet(cell(row, h1, h2)));
+        }
+
+        if (candidates.containsKey(key)) {
+            candidates.put(key, estimate);
+        } else if (estimate > admissionThreshold || candidates.size() < k) {
+            admit(key, estimate);
+        }
+        return estimate;
+    }
+
+    /**
+     * Estimated count of any key, tracked or not
+     */
+    public long estimate(String key) {
+        long hash = hash(key);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+
+        long estimate = Long.MAX_VALUE;
+        for (int row = 0; row < depth; row++) {
+            estimate = Math.min(estimate, counters.get(cell(row, h1, h2)));
+        }
+        return estimate;
+    }
+
+    /**
+     * Current top keys, highest count first
+     */
+    public List<Map.Entry<String, Long>> top() {
+        List<Map.Entry<String, Long>> result = new ArrayList<>(candidates.size());
+        candidates.forEach((key, count) -> result.add(Map.entry(key, count)));
+        result.sort(Map.Entry.<String, Long>comparingByValue(Comparator.reverseOrder()));
+        return result;
+    }
+
+    /**
+     * Halve every count (exponential decay); keys that reach zero drop out
+     */
+    public synchronized void decay() {
+        for (int i = 0; i < counters.length(); i++) {
+            long current;
+            do {
+                current = counters.get(i);
+            } while (current != 0 && !counters.compareAndSet(i, current, current >>> 1));
+        }
+
+        candidates.replaceAll((key, count) -> count >>> 1);
+        candidates.values().removeIf(count -> count == 0);
+        admissionThreshold = minCandidate();
+    }
+
+    private synchronized void admit(String key, long estimate) {
+        if (candidates.size() >= k && estimate <= admissionThreshold) {
+            return;
+        }
+
+        candidates.put(key, estimate);
+        while (candidates.size() > k) {
+            String smallest = null;
+            long smallestCount = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : candidates.entrySet()) {
+                if (entry.getValue() < smallestCount) {
+                    smallest = entry.getKey();
+                    smallestCount = entry.getValue();
+                }
+            }
+            candidates.remove(smallest);
+        }
+        admissionThreshold = candidates.size() < k ? 0 : minCandidate();
+    }
+
+    private long minCandidate() {
+        long min = Long.MAX_VALUE;
+        for (long count : candidates.values()) {
+            min = Math.min(min, count);
+        }
+        return min == Long.MAX_VALUE ? 0 : min;
+    }
+
+    private int cell(int row, int h1, int h2) {
+        int combined = h1 + row * h2;
+        int positive = combined < 0 ? ~combined : combined;
+        return row * width + positive % width;
+    }
+
+    private static long hash(String value) {
+        // FNV-1a over chars with an fmix64 finish, as in BloomFilter
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        return Hashing.fmix64(hash);
+    }
+}
@@ -0,0 +1,58 @@
+package com.example.util;
+
+import io.smallrye.mutiny.Uni;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Per-key in-flight deduplication ("single flight").
+ * <p>
+ * The first caller for a key runs the loader; callers arriving while it
+ * is still running get the same result instead of starting their own.
+ * Nothing is cached once the load completes.
+ */
+public final class SingleFlight<K, V> {
+
+    private final ConcurrentHashMap<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder coalesced = new LongAdder();
+
+    public Uni<V> load(K key, Supplier<Uni<V>> loader) {
+        CompletableFuture<V> created = new CompletableFuture<>();
+        CompletableFuture<V> existing = inFlight.putIfAbsent(key, created);
+        if (existing != null) {
+            coalesced.increment();
+            return Uni.createFrom().completionStage(existing);
+        }
+
+        try {
+            loader.get().subscribe().with(
+                    value -> {
+                        inFlight.remove(key, created);
+                        created.complete(value);
+                    },
+                    failure -> {
+                        inFlight.remove(key, created);
+                        created.completeExceptionally(failure);
+                    });
+        } catch (RuntimeException e) {
+            inFlight.remove(key, created);
+            created.completeExceptionally(e);
+        }
+
+        return Uni.createFrom().completionStage(created);
+    }
+
+    /**
+     * Number of callers that were served by another caller's load
+     */
+    public long coalescedCount() {
+        return coalesced.sum();
+    }
+
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+}
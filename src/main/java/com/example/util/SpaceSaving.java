@@ -0,0 +1,146 @@
+package com.example.util;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Space-Saving top-k sketch (Metwally et al.) over strings. Not thread-safe.
+ * <p>
+ * Monitors at most {@code capacity} values. A new value arriving when the
+ * sketch is full replaces the value with the smallest count and inherits
+ * that count as its error, so every reported count overestimates the true
+ * one by at most its error, and any value not monitored occurred at most
+ * {@link #maxError()} times (never more than total / capacity). The minimum
+ * is found by a scan, which at the capacities used here is cheaper than
+ * maintaining a Stream-Summary.
+ * <p>
+ * Sketches of disjoint parts of a stream can be {@link #merge merged}; the
+ * per-value bounds and the {@link #maxError()} bound for unmonitored values
+ * carry over.
+ */
+public final class SpaceSaving {
+
+    /**
+     * A monitored value: the true count lies in [count - error, count]
+     */
+    public record Entry(String value, long count, long error) {
+    }
+
+    private final int capacity;
+    private final Map<String, long[]> counters; // value -> {count, error}
+    private long total;
+
+    public SpaceSaving(int capacity) {
+        if (capacity < 1) {
+            throw new IllegalArgumentException("capacity must be positive");
+        }
+        this.capacity = capacity;
+        this.counters = new HashMap<>(capacity * 2);
+    }
+
+    /**
+     * Rebuild a sketch from a checkpoint. With a smaller capacity than the
+     * checkpoint had, the lowest counts are dropped, which keeps the bounds.
+     */
+    public static SpaceSaving restore(int capacity, long total, List<Entry> entries) {
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        sketch.total = total;
+        entries.stream()
+                .sorted(Comparator.comparingLong(Entry::count).reversed())
+                .limit(capacity)
+                .forEach(entry -> sketch.counters.put(entry.value(), new long[]{entry.count(), entry.error()}));
+        return sketch;
+    }
+
+    public void offer(String value) {
+        total++;
+
+        long[] counter = counters.get(value);
+        if (counter != null) {
+            counter[0]++;
+            return;
+        }
+        if (counters.size() < capacity) {
+            counters.put(value, new long[]{1, 0});
+            return;
+        }
+
+        String minValue = null;
+        long[] min = null;
+        for (Map.Entry<String, long[]> entry : counters.entrySet()) {
+            if (min == null || entry.getValue()[0] < min[0]) {
+                minValue = entry.getKey();
+                min = entry.getValue();
+            }
+        }
+        counters.remove(minValue);
+        counters.put(value, new long[]{min[0] + 1, min[0]});
+    }
+
+    /**
+     * Add the counts of a sketch of another part of the stream. A value the
+     * other sketch does not monitor occurred there at most its
+     * {@link #maxError()} times, so that is added to both its count and its
+     * error (and the same the other way round); the highest capacity counts
+     * are kept.
+     */
+    public void merge(SpaceSaving other) {
+        long missingHere = maxError();
+        long missingThere = other.maxError();
+
+        Map<String, long[]> merged = new HashMap<>((counters.size() + other.counters.size()) * 2);
+        counters.forEach((value, counter) -> {
+            long[] theirs = other.counters.get(value);
+            merged.put(value, theirs != null
+                    ? new long[]{counter[0] + theirs[0], counter[1] + theirs[1]}
+                    : new long[]{counter[0] + missingThere, counter[1] + missingThere});
+        });
+        other.counters.forEach((value, theirs) -> {
+            if (!counters.containsKey(value)) {
+                merged.put(value, new long[]{theirs[0] + missingHere, theirs[1] + missingHere});
+            }
+        });
+
+        counters.clear();
+        merged.entrySet().stream()
+                .sorted(Comparator.comparingLong((Map.Entry<String, long[]> entry) -> entry.getValue()[0]).reversed())
+                .limit(capacity)
+                .forEach(entry -> counters.put(entry.getKey(), entry.getValue()));
+        total += other.total;
+    }
+
+    public int capacity() {
+        return capacity;
+    }
+
+    /**
+     * Values offered so far
+     */
+    public long total() {
+        return total;
+    }
+
+    /**
+     * Largest possible overestimate of a monitored count, and upper bound on
+     * the count of any value that is not monitored (0 until the sketch fills)
+     */
+    public long maxError() {
+        if (counters.size() < capacity) {
+            return 0;
+        }
+        return counters.values().stream().mapToLong(counter -> counter[0]).min().orElse(0);
+    }
+
+    /**
+     * Monitored values, highest count first
+     */
+    public List<Entry> entries() {
+        List<Entry> entries = new ArrayList<>(counters.size());
+        counters.forEach((value, counter) -> entries.add(new Entry(value, counter[0], counter[1])));
+        entries.sort(Comparator.comparingLong(Entry::count).reversed());
+        return entries;
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.util;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * CDN surrogate keys for cached redirects.
+ * <p>
+ * Every cacheable redirect is tagged with {@code link-<shortCode>}, plus the
+ * link's own surrogate key (if any) so a whole group of links (a campaign,
+ * say) can be purged at the edge with one key.
+ */
+public final class SurrogateKeys {
+
+    private SurrogateKeys() {
+    }
+
+    public static Set<String> forLink(String shortCode, String surrogateKey) {
+        Set<String> keys = new LinkedHashSet<>();
+        keys.add("link-" + shortCode);
+        if (surrogateKey != null && !surrogateKey.isEmpty()) {
+            keys.add(surrogateKey);
+        }
+        return keys;
+    }
+
+    /**
+     * Space-separated {@code Surrogate-Key} header value
+     */
+    public static String header(String shortCode, String surrogateKey) {
+        return String.join(" ", forLink(shortCode, surrogateKey));
+    }
+}
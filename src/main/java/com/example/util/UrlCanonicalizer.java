@@ -0,0 +1,180 @@
+package com.example.util;
+
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Locale;
+
+/**
+ * Canonical form of http(s) destination URLs, used to spot duplicates.
+ * <p>
+ * Applies the RFC 3986 section 6.2.2 normalizations: lower-case scheme and
+ * host, upper-case percent-encoding hex digits, decode percent-encoded
+ * unreserved characters, remove dot segments, and treat an empty path as
+ * "/". Beyond the RFC it also drops the scheme's default port and an empty
+ * query. Trailing slashes, query parameter order and the fragment are kept:
+ * {@code /a/} and {@code /a} are different resources, and servers may treat
+ * the others as significant too.
+ */
+public final class UrlCanonicalizer {
+
+    private UrlCanonicalizer() {
+    }
+
+    /**
+     * @throws IllegalArgumentException if the value is not an absolute http(s) URL with a host
+     */
+    public static String canonicalize(String url) {
+        URI uri;
+        try {
+            uri = new URI(url.trim());
+        } catch (URISyntaxException e) {
+            throw new IllegalArgumentException("Malformed URL: " + e.getMessage());
+        }
+
+        String scheme = uri.getScheme() == null ? null : uri.getScheme().toLowerCase(Locale.ROOT);
+        if (!"http".equals(scheme) && !"https".equals(scheme)) {
+            throw new IllegalArgumentException("URL must use http or https");
+        }
+        if (uri.getRawAuthority() == null) {
+            throw new IllegalArgumentException("URL must have a host");
+        }
+
+        StringBuilder canonical = new StringBuilder(url.length()).append(scheme).append("://");
+
+        if (uri.getHost() != null) {
+            if (uri.getRawUserInfo() != null) {
+                canonical.append(normalizePercentEncoding(uri.getRawUserInfo())).append('@');
+            }
+            canonical.append(uri.getHost().toLowerCase(Locale.ROOT));
+            int port = uri.getPort();
+            if (port != -1 && port != defaultPort(scheme)) {
+                canonical.append(':').append(port);
+            }
+        } else {
+            // Registry-based authority java.net.URI could not split (e.g. "_" in the host)
+            canonical.append(normalizePercentEncoding(uri.getRawAuthority()).toLowerCase(Locale.ROOT));
+        }
+
+        String path = removeDotSegments(normalizePercentEncoding(uri.getRawPath()));
+        canonical.append(path.isEmpty() ? "/" : path);
+
+        String query = uri.getRawQuery();
+        if (query != null && !query.isEmpty()) {
+            canonical.append('?').append(normalizePercentEncoding(query));
+        }
+
+        String fragment = uri.getRawFragment();
+        if (fragment != null && !fragment.isEmpty()) {
+            canonical.append('#').append(normalizePercentEncoding(fragment));
+        }
+
+        return canonical.toString();
+    }
+
+    /**
+     * 64-bit dedup key of a canonical URL (leading bytes of its SHA-256).
+     * Matches must still be confirmed by comparing canonical forms.
+     */
+    public static long hash(String canonicalUrl) {
+        byte[] digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256").digest(canonicalUrl.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        long hash = 0;
+        for (int i = 0; i < Long.BYTES; i++) {
+            hash = (hash << 8) | (digest[i] & 0xff);
+        }
+        return hash;
+    }
+
+    private static int defaultPort(String scheme) {
+        return "https".equals(scheme) ? 443 : 80;
+    }
+
+    /**
+     * Decode %XX escapes of unreserved characters and upper-case the hex
+     * digits of the rest
+     */
+    static String normalizePercentEncoding(String raw) {
+        if (raw == null || raw.indexOf('%') < 0) {
+            return raw == null ? "" : raw;
+        }
+
+        StringBuilder result = new StringBuilder(raw.length());
+        for (int i = 0; i < raw.length(); i++) {
+            char c = raw.charAt(i);
+            int hi = i + 2 < raw.length() ? Character.digit(raw.charAt(i + 1), 16) : -1;
+            int lo = hi >= 0 ? Character.digit(raw.charAt(i + 2), 16) : -1;
+            if (c != '%' || lo < 0) {
+                result.append(c);
+                continue;
+            }
+
+            char decoded = (char) (hi << 4 | lo);
+            if (isUnreserved(decoded)) {
+                result.append(decoded);
+            } else {
+                result.append('%')
+                        .append(Character.toUpperCase(raw.charAt(i + 1)))
+                        .append(Character.toUpperCase(raw.charAt(i + 2)));
+            }
+            i += 2;
+        }
+        return result.toString();
+    }
+
+    private static boolean isUnreserved(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || (c >= '0' && c <= '9')
+                || c == '-' || c == '.' || c == '_' || c == '~';
+    }
+
+    /**
+     * remove_dot_segments from RFC 3986 section 5.2.4
+     */
+    static String removeDotSegments(String path) {
+        if (!path.contains(".")) {
+            return path;
+        }
+
+        StringBuilder input = new StringBuilder(path);
+        StringBuilder output = new StringBuilder(path.length());
+        while (!input.isEmpty()) {
+            if (startsWith(input, "../")) {
+                input.delete(0, 3);
+            } else if (startsWith(input, "./") || startsWith(input, "/./")) {
+                input.delete(0, 2);
+            } else if (input.toString().equals("/.")) {
+                input.replace(0, 2, "/");
+            } else if (startsWith(input, "/../")) {
+                input.delete(0, 3);
+                truncateLastSegment(output);
+            } else if (input.toString().equals("/..")) {
+                input.replace(0, 3, "/");
+                truncateLastSegment(output);
+            } else if (input.toString().equals(".") || input.toString().equals("..")) {
+                input.setLength(0);
+            } else {
+                int next = input.indexOf("/", 1);
+                int segmentEnd = next < 0 ? input.length() : next;
+                output.append(input, 0, segmentEnd);
+                input.delete(0, segmentEnd);
+            }
+        }
+        return output.toString();
+    }
+
+    private static boolean startsWith(StringBuilder value, String prefix) {
+        return value.length() >= prefix.length() && value.substring(0, prefix.length()).equals(prefix);
+    }
+
+    private static void truncateLastSegment(StringBuilder output) {
+        int lastSlash = output.lastIndexOf("/");
+        output.setLength(Math.max(lastSlash, 0));
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.util;
+
+import com.example.domain.UrlResolution;
+
+import java.time.Instant;
+
+/**
+ * Versioned string encoding of {@link UrlResolution} for the Valkey cache.
+ * <p>
+ * Layout (version 3), fields separated by {@code '|'}:
+ * <pre>
+ * 3|id|flags|expiresAtMillis|passwordHash|redirectStatus|redirectMaxAge|surrogateKey|loadedAtMillis|loadMillis|originalUrl
+ * </pre>
+ * flags bit 0 = active; expiresAtMillis is empty when the link never
+ * expires; passwordHash and surrogateKey are empty when unset;
+ * loadedAtMillis/loadMillis drive refresh-ahead. The URL
+ * goes last so it may contain the separator. Decoding is a handful of
+ * indexOf calls - no JSON parsing on the hot path.
+ * <p>
+ * Values in any other format (older versions, plain URLs from before this
+ * encoding existed) decode to null and are treated as a cache miss.
+ */
+public final class UrlResolutionCodec {
+
+    public static final String VERSION = "3";
+
+    private static final char SEPARATOR = '|';
+    private static final int FLAG_ACTIVE = 1;
+
+    private UrlResolutionCodec() {
+    }
+
+    public static String encode(UrlResolution resolution) {
+        StringBuilder out = new StringBuilder(48 + resolution.originalUrl().length());
+        out.append(VERSION).append(SEPARATOR)
+                .append(resolution.id()).append(SEPARATOR)
+                .append(resolution.active() ? FLAG_ACTIVE : 0).append(SEPARATOR);
+        if (resolution.expiresAt() != null) {
+            out.append(resolution.expiresAt().toEpochMilli());
+        }
+        out.append(SEPARATOR);
+        if (resolution.passwordHash() != null) {
+            out.append(resolution.passwordHash());
+        }
+        out.append(SEPARATOR).append(resolution.redirectStatus())
+                .append(SEPARATOR).append(resolution.redirectMaxAge())
+                .append(SEPARATOR);
+        if (resolution.surrogateKey() != null) {
+            out.append(resolution.surrogateKey());
+        }
+        out.append(SEPARATOR).append(resolution.loadedAtMillis())
+                .append(SEPARATOR).append(resolution.loadMillis())
+                .append(SEPARATOR).append(resolution.originalUrl());
+        return out.toString();
+    }
+
+    /**
+     * @return the decoded record, or null if the value is not in the current format
+     */
+    public static UrlResolution decode(String shortCode, String value) {
+        if (value == null || !value.startsWith(VERSION + SEPARATOR)) {
+            return null;
+        }
+
+        try {
+            int idEnd = value.indexOf(SEPARATOR, 2);
+            int flagsEnd = value.indexOf(SEPARATOR, idEnd + 1);
+            int expiresEnd = value.indexOf(SEPARATOR, flagsEnd + 1);
+            int hashEnd = value.indexOf(SEPARATOR, expiresEnd + 1);
+            int statusEnd = value.indexOf(SEPARATOR, hashEnd + 1);
+            int maxAgeEnd = value.indexOf(SEPARATOR, statusEnd + 1);
+            int surrogateKeyEnd = value.indexOf(SEPARATOR, maxAgeEnd + 1);
+            int loadedAtEnd = value.indexOf(SEPARATOR, surrogateKeyEnd + 1);
+            int loadMillisEnd = value.indexOf(SEPARATOR, loadedAtEnd + 1);
+            if (idEnd < 0 || flagsEnd < 0 || expiresEnd < 0 || hashEnd < 0 || statusEnd < 0
+                    || maxAgeEnd < 0 || surrogateKeyEnd < 0 || loadedAtEnd < 0 || loadMillisEnd < 0) {
+                return null;
+            }
+
+            long id = Long.parseLong(value, 2, idEnd, 10);
+            int flags = Integer.parseInt(value, idEnd + 1, flagsEnd, 10);
+            Instant expiresAt = expiresEnd > flagsEnd + 1
+                    ? Instant.ofEpochMilli(Long.parseLong(value, flagsEnd + 1, expiresEnd, 10))
+                    : null;
+            String passwordHash = hashEnd > expiresEnd + 1 ? value.substring(expiresEnd + 1, hashEnd) : null;
+            int redirectStatus = Integer.parseInt(value, hashEnd + 1, statusEnd, 10);
+            int redirectMaxAge = Integer.parseInt(value, statusEnd + 1, maxAgeEnd, 10);
+            String surrogateKey = surrogateKeyEnd > maxAgeEnd + 1
+                    ? value.substring(maxAgeEnd + 1, surrogateKeyEnd)
+                    : null;
+            long loadedAtMillis = Long.parseLong(value, surrogateKeyEnd + 1, loadedAtEnd, 10);
+            int loadMillis = Integer.parseInt(value, loadedAtEnd + 1, loadMillisEnd, 10);
+            String originalUrl = value.substring(loadMillisEnd + 1);
+
+            return new UrlResolution(id, shortCode, originalUrl, (flags & FLAG_ACTIVE) != 0,
+                    expiresAt, passwordHash, redirectStatus, redirectMaxAge, surrogateKey,
+                    loadedAtMillis, loadMillis);
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.util;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Anonymous visitor identity for unique-visitor counting: a 64-bit hash of
+ * client IP and user agent. Only the hash leaves the redirect path, and the
+ * HyperLogLogs it feeds cannot give it back.
+ */
+public final class VisitorFingerprint {
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private VisitorFingerprint() {
+    }
+
+    /**
+     * @return the fingerprint, or null without an IP address (not countable)
+     */
+    public static Long of(String ipAddress, String userAgent) {
+        if (ipAddress == null || ipAddress.isEmpty()) {
+            return null;
+        }
+
+        long hash = update(FNV_OFFSET, ipAddress);
+        hash = (hash ^ 0xff) * FNV_PRIME; // separator, so "a"+"bc" != "ab"+"c"
+        if (userAgent != null) {
+            hash = update(hash, userAgent);
+        }
+        // Spreads FNV's weak low-entropy inputs (similar IPs)
+        return Hashing.fmix64(hash);
+    }
+
+    private static long update(long hash, String value) {
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xff;
+            hash *= FNV_PRIME;
+        }
+        return hash;
+    }
+}
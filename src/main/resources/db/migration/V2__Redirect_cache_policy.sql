@@ -0,0 +1,7 @@
+-- Per-link redirect caching policy (lets the edge and browsers cache redirects)
+ALTER TABLE urls ADD COLUMN IF NOT EXISTS redirect_status SMALLINT NOT NULL DEFAULT 302;
+ALTER TABLE urls ADD COLUMN IF NOT EXISTS redirect_max_age INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE urls ADD COLUMN IF NOT EXISTS surrogate_key VARCHAR(64);
+
+ALTER TABLE urls ADD CONSTRAINT chk_urls_redirect_status CHECK (redirect_status IN (301, 302, 307, 308));
+ALTER TABLE urls ADD CONSTRAINT chk_urls_redirect_max_age CHECK (redirect_max_age >= 0);
@@ -0,0 +1,3 @@
+-- Each nextval('urls_id_seq') now leases a block of 1000 IDs to one instance,
+-- which hands them out in memory and maps them to short codes (ShortCodeGenerator).
+ALTER SEQUENCE urls_id_seq INCREMENT BY 1000;
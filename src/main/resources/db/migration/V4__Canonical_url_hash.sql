@@ -0,0 +1,9 @@
+-- 64-bit hash of the canonical destination URL (UrlCanonicalizer), so
+-- shorten can find a user's existing link to the same destination with one
+-- index probe regardless of how many links the user has.
+-- Rows created before this migration have no hash and are never deduplicated.
+ALTER TABLE urls ADD COLUMN IF NOT EXISTS canonical_url_hash BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_urls_user_canonical_hash
+    ON urls (user_id, canonical_url_hash)
+    WHERE canonical_url_hash IS NOT NULL;
@@ -0,0 +1,40 @@
+-- url_clicks becomes an append-only log, range-partitioned by month and
+-- loaded with COPY by ClickIngestor. Nothing wrote to the V1 table, so it
+-- is replaced rather than migrated.
+-- No surrogate key or foreign key: both would cost a sequence hit and an
+-- index/FK check per row. Retention detaches whole partitions
+-- (ClickPartitionMaintenance) instead of DELETEing rows.
+DROP TABLE IF EXISTS url_clicks;
+
+CREATE TABLE url_clicks (
+    url_id BIGINT NOT NULL,
+    short_code VARCHAR(10) NOT NULL,
+    clicked_at TIMESTAMPTZ NOT NULL,
+    ip_address VARCHAR(45),
+    user_agent TEXT,
+    referer TEXT,
+    country VARCHAR(2),
+    city VARCHAR(100),
+    device_type VARCHAR(50)
+) PARTITION BY RANGE (clicked_at);
+
+-- Created on every partition; BRIN suits rows that arrive in time order
+CREATE INDEX IF NOT EXISTS idx_url_clicks_url_id_clicked_at ON url_clicks (url_id, clicked_at);
+CREATE INDEX IF NOT EXISTS idx_url_clicks_clicked_at ON url_clicks USING BRIN (clicked_at);
+
+-- Current and next month; the maintenance job keeps creating months ahead
+DO $$
+DECLARE
+    month_start DATE;
+BEGIN
+    FOR i IN 0..1 LOOP
+        month_start := (date_trunc('month', now() AT TIME ZONE 'UTC') + make_interval(months => i))::date;
+        EXECUTE format(
+            'CREATE TABLE IF NOT EXISTS %I PARTITION OF url_clicks FOR VALUES FROM (%L) TO (%L)',
+            'url_clicks_' || to_char(month_start, 'YYYY_MM'),
+            month_start::timestamp AT TIME ZONE 'UTC',
+            (month_start + INTERVAL '1 month')::timestamp AT TIME ZONE 'UTC');
+    END LOOP;
+END $$;
+
+COMMENT ON TABLE url_clicks IS 'Click log, one partition per UTC month (url_clicks_YYYY_MM)';
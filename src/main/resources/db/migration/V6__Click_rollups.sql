@@ -0,0 +1,27 @@
+-- Click rollups per link per hour and per day, by referer domain, country
+-- and device. ClickIngestor upserts them in the same transaction as the
+-- COPY into url_clicks, so the rollups always match the raw log. Analytics
+-- reads only these tables, with a primary-key range scan per link.
+-- Missing dimension values are stored as 'direct'/'unknown' (ClickDimensions).
+CREATE TABLE IF NOT EXISTS click_rollup_hourly (
+    url_id BIGINT NOT NULL,
+    bucket TIMESTAMPTZ NOT NULL,
+    referer_domain VARCHAR(253) NOT NULL,
+    country VARCHAR(7) NOT NULL,
+    device_type VARCHAR(16) NOT NULL,
+    clicks BIGINT NOT NULL,
+    PRIMARY KEY (url_id, bucket, referer_domain, country, device_type)
+);
+
+CREATE TABLE IF NOT EXISTS click_rollup_daily (
+    url_id BIGINT NOT NULL,
+    bucket DATE NOT NULL,
+    referer_domain VARCHAR(253) NOT NULL,
+    country VARCHAR(7) NOT NULL,
+    device_type VARCHAR(16) NOT NULL,
+    clicks BIGINT NOT NULL,
+    PRIMARY KEY (url_id, bucket, referer_domain, country, device_type)
+);
+
+COMMENT ON TABLE click_rollup_hourly IS 'Clicks per link per UTC hour and dimension combination';
+COMMENT ON TABLE click_rollup_daily IS 'Clicks per link per UTC day and dimension combination';
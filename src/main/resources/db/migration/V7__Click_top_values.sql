@@ -0,0 +1,17 @@
+-- Checkpoints of the per-link Space-Saving top-k sketches (referers and
+-- user agents) that ClickTopValuesTracker maintains in the ingest consumer.
+-- One row per link and dimension; items[i] was counted counts[i] times,
+-- overestimated by at most errors[i]. Rewritten in place on each checkpoint.
+CREATE TABLE IF NOT EXISTS click_top_values (
+    url_id BIGINT NOT NULL,
+    dimension VARCHAR(16) NOT NULL,
+    capacity INT NOT NULL,
+    total BIGINT NOT NULL,
+    items TEXT[] NOT NULL,
+    counts BIGINT[] NOT NULL,
+    errors BIGINT[] NOT NULL,
+    updated_at TIMESTAMPTZ NOT NULL,
+    PRIMARY KEY (url_id, dimension)
+);
+
+COMMENT ON TABLE click_top_values IS 'Top referers / user agents per link (Space-Saving sketch checkpoints)';
@@ -0,0 +1,32 @@
+package com.example;
+
+import com.example.service.Impl.CacheService;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+
+class CacheServiceKeysTest {
+
+    @Test
+    void dirtySetIsNotAClickCounterKey() {
+        String dirty = CacheService.dirtyClickCountersKey();
+
+        // "dirty" is a valid custom alias
+        assertNotEquals(CacheService.clickCounterKey("dirty"), dirty);
+        assertFalse(dirty.startsWith(CacheService.clickCounterKey("")),
+                "every short code maps to " + CacheService.clickCounterKey("{code}"));
+    }
+
+    @Test
+    void dirtySetIsNotAnotherPerCodeKey() {
+        String dirty = CacheService.dirtyClickCountersKey();
+        LocalDate day = LocalDate.of(2026, 1, 1);
+
+        assertNotEquals(CacheService.urlCacheKey("dirty"), dirty);
+        assertNotEquals(CacheService.clickSeriesKey("dirty", day), dirty);
+        assertNotEquals(CacheService.visitorsKey("dirty", day), dirty);
+    }
+}
@@ -0,0 +1,43 @@
+package com.example;
+
+import com.example.util.ClickDimensions;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ClickDimensionsTest {
+
+    @Test
+    void extractsRefererDomain() {
+        assertEquals("example.com", ClickDimensions.refererDomain("https://www.Example.com/path?q=1"));
+        assertEquals("news.example.com", ClickDimensions.refererDomain("http://user:pw@news.example.com:8080/"));
+        assertEquals("example.com", ClickDimensions.refererDomain("example.com#top"));
+        assertEquals("[2001:db8::1]", ClickDimensions.refererDomain("http://[2001:db8::1]/"));
+    }
+
+    @Test
+    void mapsMissingRefererToPlaceholders() {
+        assertEquals(ClickDimensions.DIRECT, ClickDimensions.refererDomain(null));
+        assertEquals(ClickDimensions.DIRECT, ClickDimensions.refererDomain(""));
+        assertEquals(ClickDimensions.UNKNOWN, ClickDimensions.refererDomain("https:///path"));
+    }
+
+    @Test
+    void normalizesCountry() {
+        assertEquals("UZ", ClickDimensions.country("uz"));
+        assertEquals(ClickDimensions.UNKNOWN, ClickDimensions.country(null));
+        assertEquals(ClickDimensions.UNKNOWN, ClickDimensions.country("USA"));
+        assertEquals(ClickDimensions.UNKNOWN, ClickDimensions.country("1A"));
+    }
+
+    @Test
+    void classifiesDevices() {
+        assertEquals("bot", ClickDimensions.deviceType("Googlebot/2.1 (+http://www.google.com/bot.html)"));
+        assertEquals("tablet", ClickDimensions.deviceType("Mozilla/5.0 (iPad; CPU OS 17_0 like Mac OS X)"));
+        assertEquals("tablet", ClickDimensions.deviceType("Mozilla/5.0 (Linux; Android 14; SM-X710)"));
+        assertEquals("mobile", ClickDimensions.deviceType("Mozilla/5.0 (Linux; Android 14; Pixel 8) Mobile Safari"));
+        assertEquals("mobile", ClickDimensions.deviceType("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X)"));
+        assertEquals("desktop", ClickDimensions.deviceType("Mozilla/5.0 (Windows NT 10.0; Win64; x64)"));
+        assertEquals(ClickDimensions.UNKNOWN, ClickDimensions.deviceType(null));
+    }
+}
@@ -0,0 +1,99 @@
+package com.example;
+
+import com.example.dto.ClickEvent;
+import com.example.util.ClickEventCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class ClickEventCodecTest {
+
+    @Test
+    void roundTripsAllFields() {
+        ClickEvent event = ClickEvent.builder()
+                .shortCode("aB3xK9q")
+                .urlId(Long.MAX_VALUE)
+                .ipAddress("2001:db8::1")
+                .userAgent("Mozilla/5.0 (iPhone; CPU iPhone OS 17_0 like Mac OS X)")
+                .referer("https://例え.jp/путь?q=ü")
+                .country("UZ")
+                .timestamp(Instant.ofEpochMilli(1_700_000_000_123L))
+                .build();
+
+        ClickEvent decoded = ClickEventCodec.decode(ClickEventCodec.encode(event));
+
+        assertEquals(event.getShortCode(), decoded.getShortCode());
+        assertEquals(event.getUrlId(), decoded.getUrlId());
+        assertEquals(event.getIpAddress(), decoded.getIpAddress());
+        assertEquals(event.getUserAgent(), decoded.getUserAgent());
+        assertEquals(event.getReferer(), decoded.getReferer());
+        assertEquals(event.getCountry(), decoded.getCountry());
+        assertEquals(event.getTimestamp(), decoded.getTimestamp());
+    }
+
+    @Test
+    void keepsMissingFieldsMissing() {
+        ClickEvent event = ClickEvent.builder().shortCode("abc").build();
+
+        ClickEvent decoded = ClickEventCodec.decode(ClickEventCodec.encode(event));
+
+        assertEquals("abc", decoded.getShortCode());
+        assertNull(decoded.getUrlId());
+        assertNull(decoded.getIpAddress());
+        assertNull(decoded.getUserAgent());
+        assertNull(decoded.getReferer());
+        assertNull(decoded.getCountry());
+        assertNull(decoded.getTimestamp());
+    }
+
+    @Test
+    void encodesMissingShortCodeAsEmpty() {
+        ClickEvent decoded = ClickEventCodec.decode(ClickEventCodec.encode(new ClickEvent()));
+
+        assertEquals("", decoded.getShortCode());
+    }
+
+    @Test
+    void encodingIsStable() {
+        ClickEvent event = ClickEvent.builder().shortCode("abc").urlId(300L).build();
+
+        // version, flags (urlId), varint 300, length-prefixed "abc"
+        assertArrayEquals(new byte[]{1, 1, (byte) 0xAC, 0x02, 3, 'a', 'b', 'c'}, ClickEventCodec.encode(event));
+    }
+
+    @Test
+    void rejectsOtherVersions() {
+        byte[] data = ClickEventCodec.encode(ClickEvent.builder().shortCode("abc").build());
+        data[0] = 2;
+
+        assertThrows(IllegalArgumentException.class, () -> ClickEventCodec.decode(data));
+    }
+
+    @Test
+    void rejectsTruncatedData() {
+        byte[] data = ClickEventCodec.encode(ClickEvent.builder()
+                .shortCode("abc")
+                .urlId(42L)
+                .referer("https://example.com/")
+                .build());
+
+        for (int length = 0; length < data.length; length++) {
+            byte[] truncated = Arrays.copyOf(data, length);
+            assertThrows(IllegalArgumentException.class, () -> ClickEventCodec.decode(truncated),
+                    "prefix of " + length + " bytes");
+        }
+    }
+
+    @Test
+    void rejectsStringLengthPastTheEnd() {
+        byte[] data = {1, 0, 100, 'a', 'b', 'c'};
+
+        assertThrows(IllegalArgumentException.class, () -> ClickEventCodec.decode(data));
+    }
+}
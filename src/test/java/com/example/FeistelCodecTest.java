@@ -0,0 +1,66 @@
+package com.example;
+
+import com.example.util.FeistelCodec;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FeistelCodecTest {
+
+    @Test
+    void isABijectionOverTheWholeDomain() {
+        FeistelCodec codec = new FeistelCodec("test-key", 2);
+        Set<String> codes = new HashSet<>();
+
+        for (long id = 0; id < codec.capacity(); id++) {
+            String code = codec.encode(id);
+            assertEquals(2, code.length());
+            assertTrue(codes.add(code), "duplicate code " + code);
+            assertEquals(id, codec.decode(code));
+        }
+        assertEquals(62 * 62, codes.size());
+    }
+
+    @Test
+    void roundTripsAcrossTheRange() {
+        FeistelCodec codec = new FeistelCodec("test-key", 7);
+        long capacity = codec.capacity();
+
+        for (long id : new long[]{0, 1, 2, 61, 62, 1_000_000, capacity / 2, capacity - 2, capacity - 1}) {
+            assertEquals(id, codec.decode(codec.encode(id)));
+        }
+    }
+
+    @Test
+    void keyChangesThePermutation() {
+        FeistelCodec codec = new FeistelCodec("key-a", 7);
+        FeistelCodec other = new FeistelCodec("key-b", 7);
+
+        assertNotEquals(codec.encode(12345), other.encode(12345));
+        assertEquals(codec.encode(12345), new FeistelCodec("key-a", 7).encode(12345));
+    }
+
+    @Test
+    void rejectsIdsOutsideTheDomain() {
+        FeistelCodec codec = new FeistelCodec("test-key", 3);
+
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(-1));
+        assertThrows(IllegalArgumentException.class, () -> codec.encode(codec.capacity()));
+    }
+
+    @Test
+    void decodesForeignCodesToMinusOne() {
+        FeistelCodec codec = new FeistelCodec("test-key", 3);
+
+        assertEquals(-1, codec.decode(null));
+        assertEquals(-1, codec.decode("ab"));
+        assertEquals(-1, codec.decode("abcd"));
+        assertEquals(-1, codec.decode("a-c"));
+    }
+}
@@ -0,0 +1,49 @@
+package com.example;
+
+import com.example.util.Hashing;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HashingTest {
+
+    private static final BigInteger TWO_64 = BigInteger.ONE.shiftLeft(64);
+    private static final long INVERSE_1 = inverse(0xff51afd7ed558ccdL);
+    private static final long INVERSE_2 = inverse(0xc4ceb9fe1a85ec53L);
+
+    @Test
+    void fmix64IsInvertible() {
+        Random random = new Random(11);
+        for (int i = 0; i < 10_000; i++) {
+            long value = random.nextLong();
+            assertEquals(value, unmix(Hashing.fmix64(value)));
+        }
+        assertEquals(Long.MIN_VALUE, unmix(Hashing.fmix64(Long.MIN_VALUE)));
+    }
+
+    @Test
+    void fmix64AvalanchesSingleBitChanges() {
+        for (int bit = 0; bit < 64; bit++) {
+            int changed = Long.bitCount(Hashing.fmix64(0x0123456789abcdefL) ^ Hashing.fmix64(0x0123456789abcdefL ^ (1L << bit)));
+            assertTrue(changed > 16 && changed < 48, "bit " + bit + " flipped " + changed + " output bits");
+        }
+    }
+
+    private static long unmix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= INVERSE_2;
+        hash ^= hash >>> 33;
+        hash *= INVERSE_1;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long inverse(long multiplier) {
+        // Only odd multipliers have an inverse mod 2^64
+        return BigInteger.valueOf(multiplier).mod(TWO_64).modInverse(TWO_64).longValue();
+    }
+}
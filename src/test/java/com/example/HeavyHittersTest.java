@@ -0,0 +1,58 @@
+package com.example;
+
+import com.example.util.HeavyHitters;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void findsTheHeaviestKeys() {
+        HeavyHitters hitters = new HeavyHitters(3, 1024, 4);
+        for (int i = 0; i < 10_000; i++) {
+            hitters.add("tail-" + i);
+            if (i % 10 == 0) {
+                hitters.add("hot-a");
+            }
+            if (i % 20 == 0) {
+                hitters.add("hot-b");
+            }
+        }
+
+        List<Map.Entry<String, Long>> top = hitters.top();
+        assertEquals(3, top.size());
+        assertEquals("hot-a", top.get(0).getKey());
+        assertEquals("hot-b", top.get(1).getKey());
+    }
+
+    @Test
+    void neverUnderestimates() {
+        HeavyHitters hitters = new HeavyHitters(5, 64, 4);
+        for (int i = 0; i < 5_000; i++) {
+            hitters.add("key-" + (i % 100));
+        }
+
+        for (int i = 0; i < 100; i++) {
+            assertTrue(hitters.estimate("key-" + i) >= 50);
+        }
+    }
+
+    @Test
+    void decayHalvesCounts() {
+        HeavyHitters hitters = new HeavyHitters(2, 256, 4);
+        for (int i = 0; i < 10; i++) {
+            hitters.add("hot");
+        }
+        hitters.add("once");
+
+        hitters.decay();
+
+        assertEquals(5, hitters.estimate("hot"));
+        assertEquals(List.of(Map.entry("hot", 5L)), hitters.top());
+    }
+}
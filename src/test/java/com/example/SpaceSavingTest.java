@@ -0,0 +1,130 @@
+package com.example;
+
+import com.example.util.SpaceSaving;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingTest {
+
+    @Test
+    void countsExactlyUntilFull() {
+        SpaceSaving sketch = new SpaceSaving(3);
+        for (String value : new String[]{"a", "b", "a", "c", "a", "b"}) {
+            sketch.offer(value);
+        }
+
+        assertEquals(List.of(
+                new SpaceSaving.Entry("a", 3, 0),
+                new SpaceSaving.Entry("b", 2, 0),
+                new SpaceSaving.Entry("c", 1, 0)), sketch.entries());
+        assertEquals(6, sketch.total());
+        assertEquals(1, sketch.maxError());
+    }
+
+    @Test
+    void staysWithinItsErrorBounds() {
+        int capacity = 20;
+        SpaceSaving sketch = new SpaceSaving(capacity);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(7);
+
+        // Zipf-like stream over 500 values
+        for (int i = 0; i < 50_000; i++) {
+            String value = "v" + (int) Math.pow(500, random.nextDouble());
+            sketch.offer(value);
+            actual.merge(value, 1L, Long::sum);
+        }
+
+        List<SpaceSaving.Entry> entries = sketch.entries();
+        assertEquals(capacity, entries.size());
+        assertEquals(50_000, sketch.total());
+        assertTrue(sketch.maxError() <= sketch.total() / capacity);
+
+        for (SpaceSaving.Entry entry : entries) {
+            long count = actual.get(entry.value());
+            assertTrue(entry.count() - entry.error() <= count && count <= entry.count(), entry.toString());
+        }
+        for (Map.Entry<String, Long> value : actual.entrySet()) {
+            boolean monitored = entries.stream().anyMatch(entry -> entry.value().equals(value.getKey()));
+            assertTrue(monitored || value.getValue() <= sketch.maxError(), value.toString());
+        }
+    }
+
+    @Test
+    void mergedSketchesKeepTheirBounds() {
+        int capacity = 20;
+        SpaceSaving first = new SpaceSaving(capacity);
+        SpaceSaving second = new SpaceSaving(capacity);
+        Map<String, Long> actual = new HashMap<>();
+        Random random = new Random(13);
+
+        // The halves favour different values, as two pods' share of a link's clicks might
+        for (int i = 0; i < 40_000; i++) {
+            int rank = (int) Math.pow(300, random.nextDouble());
+            String value = "v" + (i % 2 == 0 ? rank : 300 - rank);
+            (i % 2 == 0 ? first : second).offer(value);
+            actual.merge(value, 1L, Long::sum);
+        }
+
+        first.merge(second);
+
+        List<SpaceSaving.Entry> entries = first.entries();
+        assertEquals(capacity, entries.size());
+        assertEquals(40_000, first.total());
+        for (SpaceSaving.Entry entry : entries) {
+            long count = actual.get(entry.value());
+            assertTrue(entry.count() - entry.error() <= count && count <= entry.count(), entry.toString());
+        }
+        for (Map.Entry<String, Long> value : actual.entrySet()) {
+            boolean monitored = entries.stream().anyMatch(entry -> entry.value().equals(value.getKey()));
+            assertTrue(monitored || value.getValue() <= first.maxError(), value.toString());
+        }
+    }
+
+    @Test
+    void mergeOfSmallSketchesIsExact() {
+        SpaceSaving first = new SpaceSaving(5);
+        SpaceSaving second = new SpaceSaving(5);
+        first.offer("a");
+        first.offer("b");
+        second.offer("a");
+        second.offer("c");
+
+        first.merge(second);
+
+        assertEquals(Set.of(
+                new SpaceSaving.Entry("a", 2, 0),
+                new SpaceSaving.Entry("b", 1, 0),
+                new SpaceSaving.Entry("c", 1, 0)), Set.copyOf(first.entries()));
+        assertEquals(4, first.total());
+        assertEquals(0, first.maxError());
+    }
+
+    @Test
+    void restoreKeepsTheHighestCounts() {
+        List<SpaceSaving.Entry> checkpoint = List.of(
+                new SpaceSaving.Entry("c", 5, 1),
+                new SpaceSaving.Entry("a", 20, 0),
+                new SpaceSaving.Entry("b", 10, 2));
+
+        SpaceSaving sketch = SpaceSaving.restore(2, 40, checkpoint);
+
+        assertEquals(List.of(checkpoint.get(1), checkpoint.get(2)), sketch.entries());
+        assertEquals(40, sketch.total());
+        assertEquals(10, sketch.maxError());
+    }
+
+    @Test
+    void rejectsNonPositiveCapacity() {
+        assertThrows(IllegalArgumentException.class, () -> new SpaceSaving(0));
+    }
+}
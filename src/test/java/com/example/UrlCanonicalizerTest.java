@@ -0,0 +1,40 @@
+package com.example;
+
+import com.example.util.UrlCanonicalizer;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class UrlCanonicalizerTest {
+
+    @Test
+    void appliesTheRfcNormalizations() {
+        assertEquals("http://example.com/a/c/?x=~%2F#Frag",
+                UrlCanonicalizer.canonicalize("HTTP://Example.COM:80/a/./b/../c/?x=%7e%2f#Frag"));
+        assertEquals("http://example.com/A%3A", UrlCanonicalizer.canonicalize("http://example.com/%41%3a"));
+        assertEquals("https://u:p@host.com:8443/x", UrlCanonicalizer.canonicalize("https://u:p@Host.com:8443/x"));
+    }
+
+    @Test
+    void treatsEmptyPathAndQueryAsRoot() {
+        assertEquals("https://example.com/", UrlCanonicalizer.canonicalize("https://example.com:443"));
+        assertEquals("https://example.com/", UrlCanonicalizer.canonicalize("https://example.com/?"));
+    }
+
+    @Test
+    void keepsTrailingSlashes() {
+        assertEquals("https://example.com/a/", UrlCanonicalizer.canonicalize("https://example.com/a/"));
+        assertEquals("https://example.com/a", UrlCanonicalizer.canonicalize("https://example.com/a"));
+        assertNotEquals(UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize("https://example.com/a/")),
+                UrlCanonicalizer.hash(UrlCanonicalizer.canonicalize("https://example.com/a")));
+    }
+
+    @Test
+    void rejectsWhatIsNotAnHttpUrl() {
+        assertThrows(IllegalArgumentException.class, () -> UrlCanonicalizer.canonicalize("https://exa mple.com"));
+        assertThrows(IllegalArgumentException.class, () -> UrlCanonicalizer.canonicalize("ftp://a.com"));
+        assertThrows(IllegalArgumentException.class, () -> UrlCanonicalizer.canonicalize("https:///path"));
+    }
+}
@@ -0,0 +1,59 @@
+package com.example;
+
+import com.example.domain.UrlResolution;
+import com.example.util.UrlResolutionCodec;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class UrlResolutionCodecTest {
+
+    @Test
+    void roundTripsAllFields() {
+        UrlResolution resolution = new UrlResolution(42L, "aB3xK9q", "https://example.com/a?b=c|d",
+                true, Instant.ofEpochMilli(1_800_000_000_000L), "$2a$10$abcdefghijklmnopqrstuv",
+                308, 3600, "u42", 1_700_000_000_000L, 17);
+
+        String encoded = UrlResolutionCodec.encode(resolution);
+
+        assertEquals(resolution, UrlResolutionCodec.decode("aB3xK9q", encoded));
+    }
+
+    @Test
+    void roundTripsOptionalFieldsAsNull() {
+        UrlResolution resolution = new UrlResolution(7L, "abc", "https://example.com/",
+                false, null, null, 302, 0, null, 0L, 0);
+
+        assertEquals(resolution, UrlResolutionCodec.decode("abc", UrlResolutionCodec.encode(resolution)));
+    }
+
+    @Test
+    void takesShortCodeFromTheKey() {
+        UrlResolution resolution = new UrlResolution(7L, "abc", "https://example.com/",
+                true, null, null, 302, 0, null, 0L, 0);
+
+        assertEquals("xyz", UrlResolutionCodec.decode("xyz", UrlResolutionCodec.encode(resolution)).shortCode());
+    }
+
+    @Test
+    void treatsOtherFormatsAsMiss() {
+        assertNull(UrlResolutionCodec.decode("abc", null));
+        assertNull(UrlResolutionCodec.decode("abc", ""));
+        assertNull(UrlResolutionCodec.decode("abc", "https://example.com/"));
+        assertNull(UrlResolutionCodec.decode("abc", "2|7|1||302|0|https://example.com/"));
+    }
+
+    @Test
+    void treatsMalformedValuesAsMiss() {
+        // too few fields
+        assertNull(UrlResolutionCodec.decode("abc", "3|7|1||"));
+        assertNull(UrlResolutionCodec.decode("abc", "3|7|1|||302|0||0|https://example.com/"));
+        // non-numeric fields
+        assertNull(UrlResolutionCodec.decode("abc", "3|x|1|||302|0||0|0|https://example.com/"));
+        assertNull(UrlResolutionCodec.decode("abc", "3|7|1|soon||302|0||0|0|https://example.com/"));
+        assertNull(UrlResolutionCodec.decode("abc", "3|7|1|||302|0||0||https://example.com/"));
+    }
+}